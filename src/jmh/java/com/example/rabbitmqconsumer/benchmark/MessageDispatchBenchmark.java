@@ -0,0 +1,84 @@
+package com.example.rabbitmqconsumer.benchmark;
+
+import com.example.rabbitmqconsumer.dedup.DuplicateMessageFilter;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.handler.GenericMessageHandler;
+import com.example.rabbitmqconsumer.handler.MessageHandler;
+import com.example.rabbitmqconsumer.handler.MessageHandlerRegistry;
+import com.example.rabbitmqconsumer.handler.NotificationMessageHandler;
+import com.example.rabbitmqconsumer.handler.OrderMessageHandler;
+import com.example.rabbitmqconsumer.handler.PaymentMessageHandler;
+import com.example.rabbitmqconsumer.handler.SimulatedMessageHandler;
+import com.example.rabbitmqconsumer.handler.UserMessageHandler;
+import com.example.rabbitmqconsumer.logging.HotPathLogger;
+import com.example.rabbitmqconsumer.metrics.MessagingMetrics;
+import com.example.rabbitmqconsumer.service.MessageProcessingService;
+import com.example.rabbitmqconsumer.stats.MessageStats;
+import com.example.rabbitmqconsumer.store.CaffeineProcessedMessageStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MessageProcessingService.processMessage() with the handlers' simulated delay switched off:
+ * handler lookup, concurrency limiter, timers, stats and the processed store - everything
+ * a message pays for besides the handler's own work. Duplicate filtering is off so every
+ * call takes the full path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class MessageDispatchBenchmark {
+
+    private static final int MESSAGES = 4096;
+
+    @Param({"order", "notification", "unknown"})
+    public String type;
+
+    private MessageProcessingService messageProcessingService;
+    private MessageDto[] messages;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<SimulatedMessageHandler> handlers = List.of(new OrderMessageHandler(), new PaymentMessageHandler(),
+                new NotificationMessageHandler(), new UserMessageHandler(), new GenericMessageHandler());
+        handlers.forEach(handler -> handler.setSimulateDelay(false));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        messageProcessingService = new MessageProcessingService(
+                new CaffeineProcessedMessageStore(10_000, Duration.ofHours(1)),
+                new DuplicateMessageFilter(false, Duration.ofMinutes(10), 10_000, 0.01),
+                new MessageHandlerRegistry(List.<MessageHandler>copyOf(handlers)),
+                new MessagingMetrics(meterRegistry),
+                new MessageStats(1000),
+                new HotPathLogger(meterRegistry, 100));
+
+        messages = new MessageDto[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            messages[i] = new MessageDto("message-" + i, "Benchmark " + type + " message", type);
+            messages[i].setSource("benchmark");
+        }
+    }
+
+    @Benchmark
+    public boolean processMessage() {
+        MessageDto messageDto = messages[next.getAndIncrement() & (MESSAGES - 1)];
+        return messageProcessingService.processMessage(messageDto, Map.of());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.rabbitmqconsumer.benchmark;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.stats.MessageStats;
+import com.example.rabbitmqconsumer.stats.StatsSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention on MessageStats: 8 listener threads recording into the same few keys, alone
+ * and while a reader keeps taking snapshots (as /api/messages/stats would).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageStatsBenchmark {
+
+    private MessageStats messageStats;
+    private MessageDto[] messages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        messageStats = new MessageStats(1000);
+        String[] types = {"order", "payment", "notification", "user"};
+        messages = new MessageDto[types.length];
+        for (int i = 0; i < types.length; i++) {
+            messages[i] = new MessageDto("id-" + i, "content", types[i]);
+            messages[i].setSource("web");
+            messages[i].setPriority(i % 2 == 0 ? "high" : "normal");
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadIndex {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void record(ThreadIndex index) {
+        messageStats.recordProcessed(messages[index.next++ & 3]);
+    }
+
+    @Benchmark
+    @Group("recordWhileSnapshotting")
+    @GroupThreads(7)
+    public void recordUnderSnapshots(ThreadIndex index) {
+        messageStats.recordProcessed(messages[index.next++ & 3]);
+    }
+
+    @Benchmark
+    @Group("recordWhileSnapshotting")
+    @GroupThreads(1)
+    public StatsSnapshot snapshot() {
+        return messageStats.snapshot();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.rabbitmqconsumer.benchmark;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.store.CaffeineProcessedMessageStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CaffeineProcessedMessageStore under concurrent inserts and lookups: 4 writer threads putting
+ * processed messages (evicting once the bound is reached) while 4 reader threads look IDs up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProcessedMessageStoreBenchmark {
+
+    private static final int MESSAGES = 1 << 16;
+
+    @Param({"10000", "100000"})
+    public long maxEntries;
+
+    private CaffeineProcessedMessageStore store;
+    private MessageDto[] messages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new CaffeineProcessedMessageStore(maxEntries, Duration.ofHours(1));
+        messages = new MessageDto[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            messages[i] = new MessageDto("message-" + i, "content", "order");
+        }
+        for (int i = 0; i < Math.min(maxEntries, MESSAGES); i++) {
+            store.put(messages[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadIndex {
+        int next = (int) (Math.random() * MESSAGES);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(4)
+    public void put(ThreadIndex index) {
+        store.put(messages[index.next++ & (MESSAGES - 1)]);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(4)
+    public MessageDto get(ThreadIndex index) {
+        return store.get(messages[index.next++ & (MESSAGES - 1)].getId());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.rabbitmqconsumer.benchmark;
+
+import com.example.rabbitmqconsumer.converter.MessageDtoEncoder;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.validation.MessagePropertiesStampingConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publish-side encoding of a MessageDto: what convertAndSend() did per message (fresh
+ * MessageProperties through the converter chain) vs MessageDtoEncoder. Run with -prof gc
+ * to compare bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class PublishEncodingBenchmark {
+
+    @Param({"0", "10"})
+    public int metadataEntries;
+
+    private MessageConverter converter;
+    private MessageDtoEncoder encoder;
+    private MessageDto messageDto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = new MessagePropertiesStampingConverter(new Jackson2JsonMessageConverter());
+        encoder = new MessageDtoEncoder("json");
+
+        messageDto = new MessageDto("3f6c1e0a-9b1d-4c55-8f7e-2a1b3c4d5e6f", "Order placed for customer 42", "order");
+        messageDto.setTimestamp(LocalDateTime.of(2025, 1, 1, 12, 0));
+        messageDto.setSource("web");
+        messageDto.setPriority("high");
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        for (int i = 0; i < metadataEntries; i++) {
+            metadata.put("key" + i, i % 2 == 0 ? "value" + i : i * 1000L);
+        }
+        messageDto.setMetadata(metadata);
+    }
+
+    @Benchmark
+    public Message converter() {
+        return converter.toMessage(messageDto, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message encoder() {
+        return encoder.encode(messageDto);
+    }
+}
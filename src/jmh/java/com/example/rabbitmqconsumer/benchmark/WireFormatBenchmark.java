@@ -0,0 +1,81 @@
+package com.example.rabbitmqconsumer.benchmark;
+
+import com.example.rabbitmqconsumer.converter.SmileMessageConverter;
+import com.example.rabbitmqconsumer.converter.StreamingMessageDtoConverter;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of a MessageDto as JSON vs Smile, and of the streaming JSON decoder
+ * (json-streaming, metadata left unparsed). Run with -prof gc to compare allocation per decode;
+ * bytes on the wire for the same payload are checked in SmileMessageConverterTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WireFormatBenchmark {
+
+    @Param({"json", "json-streaming", "smile"})
+    public String format;
+
+    @Param({"0", "10"})
+    public int metadataEntries;
+
+    private MessageConverter converter;
+    private MessageDto messageDto;
+    private byte[] encodedBody;
+    private String contentType;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = switch (format) {
+            case "smile" -> new SmileMessageConverter();
+            case "json-streaming" -> new StreamingMessageDtoConverter(new Jackson2JsonMessageConverter());
+            default -> new Jackson2JsonMessageConverter();
+        };
+
+        messageDto = new MessageDto("3f6c1e0a-9b1d-4c55-8f7e-2a1b3c4d5e6f", "Order placed for customer 42", "order");
+        messageDto.setTimestamp(LocalDateTime.of(2025, 1, 1, 12, 0));
+        messageDto.setSource("web");
+        messageDto.setPriority("high");
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        for (int i = 0; i < metadataEntries; i++) {
+            metadata.put("key" + i, i % 2 == 0 ? "value" + i : i * 1000L);
+        }
+        messageDto.setMetadata(metadata);
+
+        Message encoded = converter.toMessage(messageDto, new MessageProperties());
+        encodedBody = encoded.getBody();
+        contentType = encoded.getMessageProperties().getContentType();
+    }
+
+    @Benchmark
+    public Message encode() {
+        return converter.toMessage(messageDto, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decode() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(contentType);
+        properties.setInferredArgumentType(MessageDto.class);
+        return converter.fromMessage(new Message(encodedBody, properties));
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.rabbitmqconsumer.adaptive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Periodically resizes the running SimpleMessageListenerContainers from observed
+ * latency, error rate and queue depth, using AimdConcurrencyPolicy.
+ *
+ * The controller owns the consumer count: it sets concurrentConsumers and maxConcurrentConsumers
+ * to the same value, so the container's own idle/consecutive-message scaling stays out of the way.
+ * A listener's upper bound is the larger of max-consumers and the maxConcurrentConsumers its own
+ * container factory configured, so a wide container (e.g. the virtual-thread one) is never shrunk
+ * below its configured capacity.
+ *
+ * A new prefetch only applies to consumers started after the change, so it is reported as pending
+ * (Decision.pendingPrefetch) until the container is restarted. The controller restarts it itself
+ * the next time the listener is quiet (nothing processed, empty queue), when that costs nothing.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rabbitmq.adaptive", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(AdaptiveConcurrencyProperties.class)
+@Slf4j
+public class AdaptiveConcurrencyController {
+
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+    private final AmqpAdmin amqpAdmin;
+    private final ListenerLoadTracker loadTracker;
+    private final MeterRegistry meterRegistry;
+    private final AdaptiveConcurrencyProperties properties;
+    private final AimdConcurrencyPolicy policy;
+
+    private final Map<String, ListenerState> states = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyController(
+            RabbitListenerEndpointRegistry listenerRegistry,
+            AmqpAdmin amqpAdmin,
+            ListenerLoadTracker loadTracker,
+            MeterRegistry meterRegistry,
+            AdaptiveConcurrencyProperties properties) {
+        this.listenerRegistry = listenerRegistry;
+        this.amqpAdmin = amqpAdmin;
+        this.loadTracker = loadTracker;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.policy = new AimdConcurrencyPolicy(properties);
+    }
+
+    @Scheduled(initialDelayString = "${app.rabbitmq.adaptive.interval-ms:10000}",
+            fixedDelayString = "${app.rabbitmq.adaptive.interval-ms:10000}")
+    public void adjust() {
+        for (String id : listenerRegistry.getListenerContainerIds()) {
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(id);
+            if (properties.getExclude().contains(id)
+                    || !(container instanceof SimpleMessageListenerContainer simple)
+                    || !simple.isRunning()) {
+                continue;
+            }
+            try {
+                adjust(id, simple);
+            } catch (RuntimeException e) {
+                log.warn("Adaptive concurrency adjustment failed for listener {}: {}", id, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Latest decision per listener container, for the adaptiveconcurrency actuator endpoint
+     */
+    public Map<String, Decision> getDecisions() {
+        Map<String, Decision> decisions = new TreeMap<>();
+        states.forEach((id, state) -> {
+            if (state.lastDecision != null) {
+                decisions.put(id, state.lastDecision);
+            }
+        });
+        return Collections.unmodifiableMap(decisions);
+    }
+
+    private void adjust(String id, SimpleMessageListenerContainer container) {
+        ListenerState state = states.computeIfAbsent(id, key -> register(key, container));
+
+        LoadSample sample = LoadSample.EMPTY;
+        long queueDepth = 0;
+        for (String queueName : container.getQueueNames()) {
+            sample = sample.plus(loadTracker.drain(queueName));
+            long depth = queueDepth(queueName);
+            queueDepth = depth < 0 || queueDepth < 0 ? -1 : queueDepth + depth;
+        }
+
+        AimdConcurrencyPolicy.Step step = policy.next(state.consumers, state.targetPrefetch, sample, queueDepth,
+                state.maxConsumers);
+        if (step.consumers() > state.consumers) {
+            container.setMaxConcurrentConsumers(step.consumers());
+            container.setConcurrentConsumers(step.consumers());
+        } else if (step.consumers() < state.consumers) {
+            container.setConcurrentConsumers(step.consumers());
+            container.setMaxConcurrentConsumers(step.consumers());
+        }
+        if (step.prefetch() != state.targetPrefetch) {
+            container.setPrefetchCount(step.prefetch());
+        }
+
+        if (step.consumers() != state.consumers || step.prefetch() != state.targetPrefetch) {
+            log.info("Listener {}: {} consumers {} -> {}, prefetch {} -> {} ({})", id, step.action(),
+                    state.consumers, step.consumers(), state.targetPrefetch, step.prefetch(), step.reason());
+        }
+        state.consumers = step.consumers();
+        state.targetPrefetch = step.prefetch();
+
+        /* Running consumers keep the prefetch they were started with; restart them while nothing is in flight */
+        if (state.targetPrefetch != state.prefetch && sample.count() == 0 && queueDepth == 0) {
+            log.info("Listener {}: restarting idle container to apply prefetch {} -> {}",
+                    id, state.prefetch, state.targetPrefetch);
+            container.stop();
+            container.start();
+            state.prefetch = state.targetPrefetch;
+        }
+
+        Integer pendingPrefetch = state.targetPrefetch != state.prefetch ? state.targetPrefetch : null;
+        state.lastDecision = new Decision(Instant.now(), step.action(), step.consumers(), state.prefetch,
+                pendingPrefetch, sample.averageLatencyMillis(), sample.errorRate(), sample.count(), queueDepth,
+                step.reason());
+        state.decisions.computeIfAbsent(step.action(), action -> Counter.builder("rabbitmq.listener.adaptive.decisions")
+                        .description("Adaptive concurrency decisions per listener and action")
+                        .tag("listener", id)
+                        .tag("action", action.name().toLowerCase())
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    private ListenerState register(String id, SimpleMessageListenerContainer container) {
+        DirectFieldAccessor accessor = new DirectFieldAccessor(container);
+        ListenerState state = new ListenerState();
+        state.consumers = (Integer) accessor.getPropertyValue("concurrentConsumers");
+        state.prefetch = (Integer) accessor.getPropertyValue("prefetchCount");
+        state.targetPrefetch = state.prefetch;
+        Integer configuredMax = (Integer) accessor.getPropertyValue("maxConcurrentConsumers");
+        state.maxConsumers = Math.max(properties.getMaxConsumers(),
+                Math.max(state.consumers, configuredMax != null ? configuredMax : 0));
+        if (state.maxConsumers > properties.getMaxConsumers()) {
+            log.info("Listener {}: container allows {} consumers, using that instead of max-consumers {}",
+                    id, state.maxConsumers, properties.getMaxConsumers());
+        }
+
+        Gauge.builder("rabbitmq.listener.adaptive.consumers", state, s -> s.consumers)
+                .description("Consumer count chosen by the adaptive concurrency controller")
+                .tag("listener", id)
+                .register(meterRegistry);
+        Gauge.builder("rabbitmq.listener.adaptive.prefetch", state, s -> s.prefetch)
+                .description("Prefetch the running consumers were started with")
+                .tag("listener", id)
+                .register(meterRegistry);
+        Gauge.builder("rabbitmq.listener.adaptive.prefetch.target", state, s -> s.targetPrefetch)
+                .description("Prefetch chosen by the adaptive concurrency controller, applied on the next restart")
+                .tag("listener", id)
+                .register(meterRegistry);
+        return state;
+    }
+
+    private long queueDepth(String queueName) {
+        try {
+            QueueInformation info = amqpAdmin.getQueueInfo(queueName);
+            return info != null ? info.getMessageCount() : -1;
+        } catch (RuntimeException e) {
+            log.debug("Could not read depth of queue {}: {}", queueName, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * @param prefetch        prefetch the running consumers use
+     * @param pendingPrefetch prefetch chosen but not yet in effect (applied on restart), or null
+     */
+    public record Decision(Instant timestamp, AimdConcurrencyPolicy.Action action, int consumers, int prefetch,
+                           Integer pendingPrefetch, double averageLatencyMillis, double errorRate, long processed,
+                           long queueDepth, String reason) {
+    }
+
+    private static final class ListenerState {
+        private final Map<AimdConcurrencyPolicy.Action, Counter> decisions =
+                new EnumMap<>(AimdConcurrencyPolicy.Action.class);
+        private volatile int consumers;
+        private volatile int maxConsumers;
+        private volatile int prefetch;
+        private volatile int targetPrefetch;
+        private volatile Decision lastDecision;
+    }
+}
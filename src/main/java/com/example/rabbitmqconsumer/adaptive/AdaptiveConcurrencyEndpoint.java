@@ -0,0 +1,32 @@
+package com.example.rabbitmqconsumer.adaptive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Exposes the latest adaptive concurrency decision per listener at /actuator/adaptiveconcurrency
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.rabbitmq.adaptive", name = "enabled", havingValue = "true")
+@Endpoint(id = "adaptiveconcurrency")
+@RequiredArgsConstructor
+public class AdaptiveConcurrencyEndpoint {
+
+    private final AdaptiveConcurrencyController controller;
+
+    @ReadOperation
+    public Map<String, AdaptiveConcurrencyController.Decision> decisions() {
+        return controller.getDecisions();
+    }
+
+    @ReadOperation
+    public AdaptiveConcurrencyController.Decision decision(@Selector String listenerId) {
+        return controller.getDecisions().get(listenerId);
+    }
+}
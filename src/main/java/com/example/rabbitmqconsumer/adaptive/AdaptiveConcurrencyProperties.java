@@ -0,0 +1,50 @@
+package com.example.rabbitmqconsumer.adaptive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounds and thresholds for AdaptiveConcurrencyController.
+ */
+@ConfigurationProperties(prefix = "app.rabbitmq.adaptive")
+@Data
+public class AdaptiveConcurrencyProperties {
+
+    private boolean enabled;
+
+    private int minConsumers = 1;
+
+    private int maxConsumers = 20;
+
+    /**
+     * Consumers added per interval while there is a backlog and latency/errors are healthy
+     */
+    private int consumerStep = 1;
+
+    private int minPrefetch = 1;
+
+    private int maxPrefetch = 250;
+
+    /**
+     * Prefetch added per interval while there is a backlog and latency/errors are healthy
+     */
+    private int prefetchStep = 5;
+
+    /**
+     * Factor applied to consumers and prefetch when latency or errors exceed their limits
+     */
+    private double decreaseFactor = 0.5;
+
+    private Duration targetLatency = Duration.ofMillis(1000);
+
+    private double maxErrorRate = 0.05;
+
+    /**
+     * Listener container IDs the controller leaves alone
+     */
+    private List<String> exclude = new ArrayList<>(List.of("dead-letter-listener", "message-batch-listener"));
+}
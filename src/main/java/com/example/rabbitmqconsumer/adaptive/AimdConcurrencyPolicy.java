@@ -0,0 +1,69 @@
+package com.example.rabbitmqconsumer.adaptive;
+
+/**
+ * Additive-increase / multiplicative-decrease policy for listener consumers and prefetch.
+ *
+ * - latency above target or error rate above limit: multiply both by decreaseFactor
+ * - otherwise, a backlog deeper than consumers * prefetch: add consumerStep / prefetchStep
+ * - no traffic and an empty queue: release one consumer
+ * - anything else: hold
+ * Results are always clamped to the configured bounds.
+ */
+public class AimdConcurrencyPolicy {
+
+    public enum Action { INCREASE, DECREASE, IDLE, HOLD }
+
+    public record Step(Action action, int consumers, int prefetch, String reason) {
+    }
+
+    private final AdaptiveConcurrencyProperties properties;
+
+    public AimdConcurrencyPolicy(AdaptiveConcurrencyProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param queueDepth messages ready in the listener's queues, or a negative value if unknown
+     */
+    public Step next(int consumers, int prefetch, LoadSample sample, long queueDepth) {
+        return next(consumers, prefetch, sample, queueDepth, properties.getMaxConsumers());
+    }
+
+    /**
+     * Same as next(), with a listener-specific upper bound on consumers instead of max-consumers
+     */
+    public Step next(int consumers, int prefetch, LoadSample sample, long queueDepth, int maxConsumers) {
+        double latencyMillis = sample.averageLatencyMillis();
+        if (sample.errorRate() > properties.getMaxErrorRate()) {
+            return decrease(consumers, prefetch, maxConsumers, String.format("error rate %.3f above %.3f",
+                    sample.errorRate(), properties.getMaxErrorRate()));
+        }
+        if (latencyMillis > properties.getTargetLatency().toMillis()) {
+            return decrease(consumers, prefetch, maxConsumers, String.format("latency %.1f ms above target %d ms",
+                    latencyMillis, properties.getTargetLatency().toMillis()));
+        }
+        if (queueDepth > (long) consumers * prefetch) {
+            return step(Action.INCREASE,
+                    consumers + properties.getConsumerStep(),
+                    prefetch + properties.getPrefetchStep(),
+                    maxConsumers, "backlog of " + queueDepth + " messages");
+        }
+        if (sample.count() == 0 && queueDepth == 0) {
+            return step(Action.IDLE, consumers - 1, prefetch, maxConsumers, "idle");
+        }
+        return step(Action.HOLD, consumers, prefetch, maxConsumers, "within targets");
+    }
+
+    private Step decrease(int consumers, int prefetch, int maxConsumers, String reason) {
+        return step(Action.DECREASE,
+                (int) Math.floor(consumers * properties.getDecreaseFactor()),
+                (int) Math.floor(prefetch * properties.getDecreaseFactor()),
+                maxConsumers, reason);
+    }
+
+    private Step step(Action action, int consumers, int prefetch, int maxConsumers, String reason) {
+        int boundedConsumers = Math.max(properties.getMinConsumers(), Math.min(maxConsumers, consumers));
+        int boundedPrefetch = Math.max(properties.getMinPrefetch(), Math.min(properties.getMaxPrefetch(), prefetch));
+        return new Step(action, boundedConsumers, boundedPrefetch, reason);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.rabbitmqconsumer.adaptive;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-queue processing latency and outcomes from the listeners, for
+ * AdaptiveConcurrencyController to drain once per control interval.
+ * Recording is a few LongAdder increments; a sample that races with drain()
+ * may land in the window being drained and be lost, which is fine for control input.
+ */
+@Component
+public class ListenerLoadTracker {
+
+    private final Map<String, AtomicReference<Window>> windows = new ConcurrentHashMap<>();
+
+    public void record(String queueName, long latencyNanos, boolean success) {
+        if (queueName == null) {
+            return;
+        }
+        Window window = windows.computeIfAbsent(queueName, q -> new AtomicReference<>(new Window())).get();
+        window.count.increment();
+        window.latencyNanos.add(latencyNanos);
+        if (!success) {
+            window.errors.increment();
+        }
+    }
+
+    /**
+     * Returns what was recorded for the queue since the previous drain and starts a new window
+     */
+    public LoadSample drain(String queueName) {
+        AtomicReference<Window> current = windows.get(queueName);
+        if (current == null) {
+            return LoadSample.EMPTY;
+        }
+        Window window = current.getAndSet(new Window());
+        return new LoadSample(window.count.sum(), window.errors.sum(), window.latencyNanos.sum());
+    }
+
+    private static final class Window {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.rabbitmqconsumer.adaptive;
+
+/**
+ * Processing outcomes observed on one queue during one control interval.
+ */
+public record LoadSample(long count, long errors, long totalLatencyNanos) {
+
+    public static final LoadSample EMPTY = new LoadSample(0, 0, 0);
+
+    public double averageLatencyMillis() {
+        return count == 0 ? 0.0 : totalLatencyNanos / 1_000_000.0 / count;
+    }
+
+    public double errorRate() {
+        return count == 0 ? 0.0 : (double) errors / count;
+    }
+
+    public LoadSample plus(LoadSample other) {
+        return new LoadSample(count + other.count, errors + other.errors, totalLatencyNanos + other.totalLatencyNanos);
+    }
+}
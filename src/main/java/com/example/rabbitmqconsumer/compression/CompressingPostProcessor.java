@@ -0,0 +1,62 @@
+package com.example.rabbitmqconsumer.compression;
+
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+
+/**
+ * Before-publish post processor that compresses bodies of at least thresholdBytes and sets
+ * content-encoding. The converter's charset is kept after a colon ("deflate:UTF-8"), the
+ * same convention as Spring AMQP's GZipPostProcessor. Bodies that are small, already
+ * compressed, or do not shrink are sent as is.
+ */
+public class CompressingPostProcessor implements MessagePostProcessor {
+
+    private final CompressionCodec codec;
+    private final int thresholdBytes;
+    private final CompressionMetrics metrics;
+
+    public CompressingPostProcessor(CompressionCodec codec, int thresholdBytes, CompressionMetrics metrics) {
+        this.codec = codec;
+        this.thresholdBytes = thresholdBytes;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Message postProcessMessage(Message message) throws AmqpException {
+        MessageProperties properties = message.getMessageProperties();
+        byte[] body = message.getBody();
+        String charset = properties.getContentEncoding();
+        if (body == null || body.length < thresholdBytes || isCompressed(charset)) {
+            return message;
+        }
+
+        long start = metrics.cpuTime();
+        byte[] compressed = codec.compress(body);
+        metrics.recordCompression(codec.getEncoding(), body.length, compressed.length, metrics.cpuTime() - start);
+        if (compressed.length >= body.length) {
+            return message;
+        }
+        properties.setContentEncoding(charset == null ? codec.getEncoding() : codec.getEncoding() + ":" + charset);
+        properties.setContentLength(compressed.length);
+        return new Message(compressed, properties);
+    }
+
+    /**
+     * Converters put the body's charset in content-encoding; anything else means the body is already encoded
+     */
+    private static boolean isCompressed(String contentEncoding) {
+        if (contentEncoding == null) {
+            return false;
+        }
+        try {
+            return !Charset.isSupported(contentEncoding);
+        } catch (IllegalCharsetNameException e) {
+            return true;
+        }
+    }
+}
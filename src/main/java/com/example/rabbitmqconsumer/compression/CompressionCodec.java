@@ -0,0 +1,22 @@
+package com.example.rabbitmqconsumer.compression;
+
+/**
+ * A body compression scheme, identified on the wire by the AMQP content-encoding property.
+ * Every CompressionCodec bean can be decoded by consumers; the one named by
+ * app.rabbitmq.compression.codec is used for publishing.
+ */
+public interface CompressionCodec {
+
+    /**
+     * Value of the content-encoding property for bodies produced by this codec
+     */
+    String getEncoding();
+
+    byte[] compress(byte[] body);
+
+    /**
+     * @param maxBytes largest decoded body accepted; decoding stops with an IllegalArgumentException
+     *                 as soon as the output would exceed it
+     */
+    byte[] decompress(byte[] body, int maxBytes);
+}
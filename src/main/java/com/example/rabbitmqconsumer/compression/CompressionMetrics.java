@@ -0,0 +1,67 @@
+package com.example.rabbitmqconsumer.compression;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compression ratio (compressed / original size), bytes saved and CPU time per codec operation
+ */
+public class CompressionMetrics {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final MeterRegistry registry;
+    private final boolean cpuTimeSupported = THREADS.isCurrentThreadCpuTimeSupported();
+    private final Map<String, DistributionSummary> ratios = new ConcurrentHashMap<>();
+    private final Map<String, Counter> bytesSaved = new ConcurrentHashMap<>();
+    private final Map<String, Timer> cpuTimers = new ConcurrentHashMap<>();
+
+    public CompressionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * CPU time of the current thread in nanoseconds, or wall time where CPU time is unavailable
+     */
+    public long cpuTime() {
+        return cpuTimeSupported ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    public void recordCompression(String encoding, int originalBytes, int compressedBytes, long cpuNanos) {
+        ratios.computeIfAbsent(encoding,
+                        key -> DistributionSummary.builder("messages.compression.ratio")
+                                .description("Compressed size as a fraction of the original body size")
+                                .tag("encoding", encoding)
+                                .publishPercentiles(0.5, 0.95)
+                                .register(registry))
+                .record((double) compressedBytes / originalBytes);
+        bytesSaved.computeIfAbsent(encoding,
+                        key -> Counter.builder("messages.compression.bytes.saved")
+                                .tag("encoding", encoding)
+                                .baseUnit("bytes")
+                                .register(registry))
+                .increment(Math.max(0, originalBytes - compressedBytes));
+        cpuTimer("compress", encoding).record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDecompression(String encoding, long cpuNanos) {
+        cpuTimer("decompress", encoding).record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer cpuTimer(String operation, String encoding) {
+        return cpuTimers.computeIfAbsent(operation + '|' + encoding,
+                key -> Timer.builder("messages.compression.cpu")
+                        .description("CPU time spent compressing or decompressing message bodies")
+                        .tag("operation", operation)
+                        .tag("encoding", encoding)
+                        .register(registry));
+    }
+}
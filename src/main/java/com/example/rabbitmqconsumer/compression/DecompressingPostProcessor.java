@@ -0,0 +1,67 @@
+package com.example.rabbitmqconsumer.compression;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * After-receive post processor for the listener containers: decodes bodies whose content-encoding
+ * matches a registered codec, before any conversion, and restores the charset that was kept
+ * after the colon ("deflate:UTF-8"), if any.
+ * Messages without (or with an unknown) encoding pass through unchanged.
+ *
+ * Decoded bodies are capped at maxBodyBytes (app.rabbitmq.validation.max-body-bytes), so a small
+ * highly compressed body can't expand into an unbounded allocation; such messages are rejected
+ * to the dead-letter queue like any other undecodable body.
+ */
+@Slf4j
+public class DecompressingPostProcessor implements MessagePostProcessor {
+
+    private final Map<String, CompressionCodec> codecs;
+    private final CompressionMetrics metrics;
+    private final int maxBodyBytes;
+
+    public DecompressingPostProcessor(List<CompressionCodec> codecs, CompressionMetrics metrics, int maxBodyBytes) {
+        this.codecs = codecs.stream().collect(Collectors.toUnmodifiableMap(
+                codec -> codec.getEncoding().toLowerCase(Locale.ROOT), Function.identity()));
+        this.metrics = metrics;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    public Message postProcessMessage(Message message) throws AmqpException {
+        MessageProperties properties = message.getMessageProperties();
+        String encoding = properties.getContentEncoding();
+        if (encoding == null) {
+            return message;
+        }
+        int separator = encoding.indexOf(':');
+        String codecName = separator < 0 ? encoding : encoding.substring(0, separator);
+        CompressionCodec codec = codecs.get(codecName.toLowerCase(Locale.ROOT));
+        if (codec == null) {
+            return message;
+        }
+
+        long start = metrics.cpuTime();
+        byte[] body;
+        try {
+            body = codec.decompress(message.getBody(), maxBodyBytes);
+        } catch (IllegalArgumentException e) {
+            log.error("Could not decode {} body of message {}: {}", encoding, properties.getMessageId(), e.getMessage());
+            throw new AmqpRejectAndDontRequeueException("Invalid " + encoding + " body", e);
+        }
+        metrics.recordDecompression(codec.getEncoding(), metrics.cpuTime() - start);
+        properties.setContentEncoding(separator < 0 ? null : encoding.substring(separator + 1));
+        properties.setContentLength(body.length);
+        return new Message(body, properties);
+    }
+}
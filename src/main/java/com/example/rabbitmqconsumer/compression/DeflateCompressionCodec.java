@@ -0,0 +1,69 @@
+package com.example.rabbitmqconsumer.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * zlib "deflate" encoding using the JDK Deflater/Inflater
+ */
+public class DeflateCompressionCodec implements CompressionCodec {
+
+    public static final String ENCODING = "deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int level;
+
+    public DeflateCompressionCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public byte[] compress(byte[] body) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 2));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] body, int maxBytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(body);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(maxBytes, body.length * 4L));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated or invalid deflate body");
+                }
+                if (count > maxBytes - out.size()) {
+                    throw new IllegalArgumentException("Decoded deflate body exceeds " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid deflate body", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
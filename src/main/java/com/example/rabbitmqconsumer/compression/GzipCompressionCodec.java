@@ -0,0 +1,45 @@
+package com.example.rabbitmqconsumer.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * "gzip" encoding, the same format Spring AMQP's GZipPostProcessor produces
+ */
+public class GzipCompressionCodec implements CompressionCodec {
+
+    public static final String ENCODING = "gzip";
+
+    @Override
+    public String getEncoding() {
+        return ENCODING;
+    }
+
+    @Override
+    public byte[] compress(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 2));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] decompress(byte[] body, int maxBytes) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            byte[] decoded = gzip.readNBytes(maxBytes);
+            if (gzip.read() != -1) {
+                throw new IllegalArgumentException("Decoded gzip body exceeds " + maxBytes + " bytes");
+            }
+            return decoded;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid gzip body", e);
+        }
+    }
+}
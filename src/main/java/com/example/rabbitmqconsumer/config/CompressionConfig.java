@@ -0,0 +1,61 @@
+package com.example.rabbitmqconsumer.config;
+
+import com.example.rabbitmqconsumer.compression.CompressingPostProcessor;
+import com.example.rabbitmqconsumer.compression.CompressionCodec;
+import com.example.rabbitmqconsumer.compression.CompressionMetrics;
+import com.example.rabbitmqconsumer.compression.DecompressingPostProcessor;
+import com.example.rabbitmqconsumer.compression.DeflateCompressionCodec;
+import com.example.rabbitmqconsumer.compression.GzipCompressionCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/*
+ * Body compression (app.rabbitmq.compression):
+    RabbitTemplate runs CompressingPostProcessor after conversion, so every publish
+    path (sync, async, batch, retries) compresses bodies of at least threshold-bytes
+    with the configured codec and sets content-encoding. All listener container
+    factories run DecompressingPostProcessor before conversion, so consumers see
+    plain bodies, never larger than app.rabbitmq.validation.max-body-bytes.
+    Any additional CompressionCodec bean is picked up on both sides.
+ */
+@Configuration
+@EnableConfigurationProperties(CompressionProperties.class)
+public class CompressionConfig {
+
+    @Bean
+    public CompressionMetrics compressionMetrics(MeterRegistry meterRegistry) {
+        return new CompressionMetrics(meterRegistry);
+    }
+
+    @Bean
+    public DeflateCompressionCodec deflateCompressionCodec(CompressionProperties compressionProperties) {
+        return new DeflateCompressionCodec(compressionProperties.getLevel());
+    }
+
+    @Bean
+    public GzipCompressionCodec gzipCompressionCodec() {
+        return new GzipCompressionCodec();
+    }
+
+    @Bean
+    public CompressingPostProcessor compressingPostProcessor(List<CompressionCodec> codecs,
+            CompressionProperties compressionProperties, CompressionMetrics compressionMetrics) {
+        CompressionCodec codec = codecs.stream()
+                .filter(candidate -> candidate.getEncoding().equalsIgnoreCase(compressionProperties.getCodec()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No compression codec for encoding: " + compressionProperties.getCodec()));
+        return new CompressingPostProcessor(codec, compressionProperties.getThresholdBytes(), compressionMetrics);
+    }
+
+    @Bean
+    public DecompressingPostProcessor decompressingPostProcessor(List<CompressionCodec> codecs,
+            CompressionMetrics compressionMetrics,
+            @Value("${app.rabbitmq.validation.max-body-bytes:1048576}") int maxBodyBytes) {
+        return new DecompressingPostProcessor(codecs, compressionMetrics, maxBodyBytes);
+    }
+}
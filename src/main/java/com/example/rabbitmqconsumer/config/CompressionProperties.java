@@ -0,0 +1,30 @@
+package com.example.rabbitmqconsumer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Publish-side body compression. Consumers always decode any content-encoding
+ * a registered codec understands, whether or not publishing compresses.
+ */
+@ConfigurationProperties(prefix = "app.rabbitmq.compression")
+@Data
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Bodies smaller than this are published uncompressed
+     */
+    private int thresholdBytes = 4096;
+
+    /**
+     * content-encoding of the codec used for publishing (deflate or gzip)
+     */
+    private String codec = "deflate";
+
+    /**
+     * Deflater level, 1 (fastest) to 9 (smallest)
+     */
+    private int level = 6;
+}
@@ -0,0 +1,29 @@
+package com.example.rabbitmqconsumer.config;
+
+import com.example.rabbitmqconsumer.dedup.DuplicateMessageFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class DeduplicationConfig {
+
+    @Value("${app.dedup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.dedup.retention:10m}")
+    private Duration retention;
+
+    @Value("${app.dedup.max-entries:100000}")
+    private long maxEntries;
+
+    @Value("${app.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Bean
+    public DuplicateMessageFilter duplicateMessageFilter() {
+        return new DuplicateMessageFilter(enabled, retention, maxEntries, falsePositiveRate);
+    }
+}
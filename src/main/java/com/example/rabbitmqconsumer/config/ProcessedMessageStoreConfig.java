@@ -0,0 +1,29 @@
+package com.example.rabbitmqconsumer.config;
+
+import com.example.rabbitmqconsumer.store.CaffeineProcessedMessageStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ProcessedMessageStoreConfig {
+
+    @Value("${app.processed-store.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${app.processed-store.ttl:1h}")
+    private Duration ttl;
+
+    /*
+     * Default store; to replace it, set app.processed-store.type to another value
+     * and declare your own ProcessedMessageStore bean
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.processed-store", name = "type", havingValue = "caffeine", matchIfMissing = true)
+    public CaffeineProcessedMessageStore processedMessageStore() {
+        return new CaffeineProcessedMessageStore(maxEntries, ttl);
+    }
+}
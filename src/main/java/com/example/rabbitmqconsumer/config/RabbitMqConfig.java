@@ -1,18 +1,42 @@
 package com.example.rabbitmqconsumer.config;
 
+import com.example.rabbitmqconsumer.compression.CompressingPostProcessor;
+import com.example.rabbitmqconsumer.compression.DecompressingPostProcessor;
+import com.example.rabbitmqconsumer.converter.MessageDtoEncoder;
+import com.example.rabbitmqconsumer.converter.SmileMessageConverter;
+import com.example.rabbitmqconsumer.converter.StreamingMessageDtoConverter;
+import com.example.rabbitmqconsumer.metrics.TimedMessageConverter;
+import com.example.rabbitmqconsumer.validation.MessagePropertiesStampingConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
+@EnableConfigurationProperties({TypedQueueProperties.class, RetryProperties.class})
+@Slf4j
 public class RabbitMqConfig {
 
     @Value("${app.rabbitmq.queue.name}")
@@ -24,6 +48,21 @@ public class RabbitMqConfig {
     @Value("${app.rabbitmq.routing-key}")
     private String routingKey;
 
+    @Value("${app.rabbitmq.wire-format:json}")
+    private String wireFormat;
+
+    @Value("${app.rabbitmq.listener.batch.size:50}")
+    private int batchSize;
+
+    @Value("${app.rabbitmq.listener.batch.receive-timeout:1000}")
+    private long batchReceiveTimeout;
+
+    @Value("${app.rabbitmq.listener.virtual-threads.concurrency:50}")
+    private int virtualThreadConcurrency;
+
+    @Value("${app.rabbitmq.listener.virtual-threads.max-concurrency:500}")
+    private int virtualThreadMaxConcurrency;
+
     @Bean
     public Queue messageQueue() {
         return QueueBuilder.durable(queueName)
@@ -50,6 +89,56 @@ public class RabbitMqConfig {
                 .with(routingKey);
     }
 
+    /*
+     * Per-type queues (app.rabbitmq.typed-queues):
+        message.queue.<type> bound to message.exchange with <type> as routing key.
+        MessagePublisherService routes by MessageDto.getType(); types without a
+        queue of their own keep going to message.queue. Dead letters are routed
+        with the main routing key so they all land in the one DLQ.
+     */
+    @Bean
+    public Declarables typedQueues(TypedQueueProperties typedQueueProperties) {
+        List<Declarable> declarables = new ArrayList<>();
+        if (typedQueueProperties.isEnabled()) {
+            for (String type : typedQueueProperties.getTypes().keySet()) {
+                Queue queue = QueueBuilder.durable(typedQueueProperties.queueNameFor(queueName, type))
+                        .withArgument("x-dead-letter-exchange", "dlx." + exchangeName)
+                        .withArgument("x-dead-letter-routing-key", routingKey)
+                        .build();
+                declarables.add(queue);
+                declarables.add(BindingBuilder.bind(queue).to(messageExchange()).with(type));
+            }
+        }
+        return new Declarables(declarables);
+    }
+
+    /*
+     * Delayed retry tiers (app.rabbitmq.retry):
+        one fanout exchange + queue per delay, the queue with x-message-ttl = delay
+        and message.exchange as dead-letter exchange. DelayedRetryHandler republishes
+        a failed message to the tier for its attempt, keeping its original routing key;
+        when the TTL expires the broker dead-letters it back to message.exchange with
+        that same key, so it returns to the queue it came from. No consumer thread
+        waits out the delay.
+     */
+    @Bean
+    public Declarables retryQueues(RetryProperties retryProperties) {
+        List<Declarable> declarables = new ArrayList<>();
+        if (retryProperties.isEnabled()) {
+            for (Duration delay : retryProperties.getDelays()) {
+                FanoutExchange exchange = new FanoutExchange(retryProperties.exchangeNameFor(exchangeName, delay), true, false);
+                Queue queue = QueueBuilder.durable(retryProperties.queueNameFor(queueName, delay))
+                        .ttl((int) delay.toMillis())
+                        .deadLetterExchange(exchangeName)
+                        .build();
+                declarables.add(exchange);
+                declarables.add(queue);
+                declarables.add(BindingBuilder.bind(queue).to(exchange));
+            }
+        }
+        return new Declarables(declarables);
+    }
+
     // Dead Letter Queue configuration
     @Bean
     public Queue deadLetterQueue() {
@@ -68,15 +157,116 @@ public class RabbitMqConfig {
                 .with(routingKey);
     }
 
+    /*
+     * Message conversion:
+        consumed messages are decoded by content type, so JSON from older producers and
+        Smile (binary JSON) are both accepted; published messages use app.rabbitmq.wire-format.
+        JSON MessageDtos are read with a streaming parser that leaves metadata unparsed
+        until a handler asks for it.
+        Deserialization is timed as messages.deserialize, and published MessageDtos carry
+        their id/type as AMQP properties for MessagePreValidator.
+     */
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
-        return new Jackson2JsonMessageConverter();
+    public TimedMessageConverter messageConverter() {
+        StreamingMessageDtoConverter jsonConverter = new StreamingMessageDtoConverter(new Jackson2JsonMessageConverter());
+        SmileMessageConverter smileConverter = new SmileMessageConverter();
+        ContentTypeDelegatingMessageConverter negotiatingConverter = new ContentTypeDelegatingMessageConverter(
+                "smile".equalsIgnoreCase(wireFormat) ? smileConverter : jsonConverter);
+        negotiatingConverter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, jsonConverter);
+        negotiatingConverter.addDelegate(SmileMessageConverter.CONTENT_TYPE_SMILE, smileConverter);
+        return new TimedMessageConverter(new MessagePropertiesStampingConverter(negotiatingConverter));
+    }
+
+    /*
+     * Default listener container factory:
+        Boot's spring.rabbitmq.listener.simple settings plus transparent
+        decompression; declaring it replaces the auto-configured one.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            DecompressingPostProcessor decompressingPostProcessor) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAfterReceivePostProcessors(decompressingPostProcessor);
+        return factory;
+    }
+
+    /*
+     * Publish-side encoding:
+        MessagePublisherService encodes MessageDtos itself, into buffers from a
+        small shared pool, and sends ready-made Messages; the result is the same as
+        messageConverter() produces for app.rabbitmq.wire-format.
+     */
+    @Bean
+    public MessageDtoEncoder messageDtoEncoder() {
+        return new MessageDtoEncoder(wireFormat);
+    }
+
+    /*
+     * Batch consumption (opt-in via app.rabbitmq.listener.batch.enabled):
+        the container collects up to batchSize deliveries, or whatever arrived
+        within batchReceiveTimeout, and hands them to the listener as one List.
+        Acknowledgement is manual so MessageConsumer.consumeBatch() can ack or
+        reject every delivery on its own - a bad element goes to the DLQ
+        without redelivering the rest of the batch. For the same reason bodies are
+        decompressed in consumeBatch(), not by an after-receive post processor: a
+        body that fails to decompress there must still be rejected by delivery tag.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setReceiveTimeout(batchReceiveTimeout);
+        factory.setBatchReceiveTimeout(batchReceiveTimeout);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
+
+    /*
+     * Virtual-thread listener containers (opt-in via app.rabbitmq.listener.virtual-threads.enabled):
+        same settings as spring.rabbitmq.listener.simple (ack mode, prefetch, retry),
+        but every consumer runs on a virtual thread, so blocking handlers can have
+        hundreds of messages in flight without hundreds of platform threads.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory virtualThreadRabbitListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            DecompressingPostProcessor decompressingPostProcessor) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAfterReceivePostProcessors(decompressingPostProcessor);
+
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("rabbit-vthread-");
+        taskExecutor.setVirtualThreads(true);
+        factory.setTaskExecutor(taskExecutor);
+        factory.setConcurrentConsumers(virtualThreadConcurrency);
+        factory.setMaxConcurrentConsumers(virtualThreadMaxConcurrency);
+        return factory;
     }
 
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, CompressionProperties compressionProperties,
+            CompressingPostProcessor compressingPostProcessor) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(messageConverter());
+        if (compressionProperties.isEnabled()) {
+            template.addBeforePublishPostProcessors(compressingPostProcessor);
+        }
+        // Unroutable messages come back to the publisher instead of being dropped silently;
+        // for confirmed publishes they are also attached to the CorrelationData
+        template.setMandatory(true);
+        // Publish on a separate connection: when the broker blocks publishers (memory or disk alarm)
+        // it stops reading from the publishing connection, which would also stall listener acks
+        template.setUsePublisherConnection(true);
+        template.setReturnsCallback(returned -> log.warn("Message returned by broker: {} {} (exchange: {}, routing key: {})",
+                returned.getReplyCode(), returned.getReplyText(), returned.getExchange(), returned.getRoutingKey()));
         return template;
     }
 }
\ No newline at end of file
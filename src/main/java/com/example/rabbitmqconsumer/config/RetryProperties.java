@@ -0,0 +1,48 @@
+package com.example.rabbitmqconsumer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delayed retries through tiered TTL queues: attempt N waits delays[N-1] in
+ * &lt;queue name&gt;.retry.&lt;millis&gt; before it is dead-lettered back to the main exchange.
+ * A message that has used up every tier goes to the DLQ.
+ */
+@ConfigurationProperties(prefix = "app.rabbitmq.retry")
+@Data
+public class RetryProperties {
+
+    /**
+     * Header carrying the number of retries already scheduled for a message
+     */
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+
+    /**
+     * Header carrying the failure that caused the latest retry
+     */
+    public static final String RETRY_REASON_HEADER = "x-retry-reason";
+
+    private boolean enabled;
+
+    /**
+     * Delay per retry attempt; the number of entries is the max number of retries
+     */
+    private List<Duration> delays = new ArrayList<>(List.of(Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(30)));
+
+    /**
+     * Max time the listener thread waits for the broker to confirm a retry before falling back to the DLQ
+     */
+    private Duration confirmTimeout = Duration.ofSeconds(1);
+
+    public String exchangeNameFor(String baseExchangeName, Duration delay) {
+        return baseExchangeName + ".retry." + delay.toMillis();
+    }
+
+    public String queueNameFor(String baseQueueName, Duration delay) {
+        return baseQueueName + ".retry." + delay.toMillis();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.rabbitmqconsumer.config;
+
+import com.example.rabbitmqconsumer.compression.DecompressingPostProcessor;
+import com.example.rabbitmqconsumer.consumer.MessageConsumer;
+import com.example.rabbitmqconsumer.handler.MessageHandlerRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/*
+ * Registers one listener container per typed queue, each with its own
+ * concurrency and prefetch, so a backlog of slow message types can't hold up
+ * fast ones queued behind them. Containers otherwise share the
+ * spring.rabbitmq.listener.simple settings (ack mode, retry).
+ * Typed containers are never batch listeners, and with virtual threads enabled
+ * they keep their own concurrency rather than listener.virtual-threads.concurrency,
+ * so batch and virtual-thread tuning only cover types left on the main queue.
+ * A queue's consumers are capped at its handler's getMaxConcurrency(): more would
+ * only wait for a handler slot and requeue.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class TypedQueueListenerConfig implements RabbitListenerConfigurer {
+
+    private final TypedQueueProperties typedQueueProperties;
+    private final SimpleRabbitListenerContainerFactoryConfigurer containerFactoryConfigurer;
+    private final ConnectionFactory connectionFactory;
+    private final MessageConsumer messageConsumer;
+    private final DecompressingPostProcessor decompressingPostProcessor;
+    private final MessageHandlerRegistry handlerRegistry;
+
+    @Value("${app.rabbitmq.queue.name}")
+    private String queueName;
+
+    @Value("${app.rabbitmq.listener.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        if (!typedQueueProperties.isEnabled()) {
+            return;
+        }
+
+        typedQueueProperties.getTypes().forEach((type, settings) -> {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("typed-listener-" + type);
+            endpoint.setQueueNames(typedQueueProperties.queueNameFor(queueName, type));
+            endpoint.setMessageListener(messageConsumer::consumeTypedMessage);
+
+            int handlerLimit = handlerRegistry.resolve(type).getHandler().getMaxConcurrency();
+            int maxConcurrency = handlerLimit > 0 ? Math.min(settings.getMaxConcurrency(), handlerLimit)
+                    : settings.getMaxConcurrency();
+            int concurrency = Math.min(settings.getConcurrency(), maxConcurrency);
+            if (maxConcurrency < settings.getMaxConcurrency()) {
+                log.warn("Typed queue '{}' max-concurrency {} exceeds its handler's limit, using {}",
+                        type, settings.getMaxConcurrency(), maxConcurrency);
+            }
+
+            SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+            containerFactoryConfigurer.configure(factory, connectionFactory);
+            factory.setConcurrentConsumers(concurrency);
+            factory.setMaxConcurrentConsumers(maxConcurrency);
+            factory.setPrefetchCount(settings.getPrefetch());
+            factory.setAfterReceivePostProcessors(decompressingPostProcessor);
+            if (virtualThreads) {
+                SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("rabbit-" + type + "-");
+                taskExecutor.setVirtualThreads(true);
+                factory.setTaskExecutor(taskExecutor);
+            }
+
+            registrar.registerEndpoint(endpoint, factory);
+            log.info("Registered listener for queue '{}' (concurrency: {}-{}, prefetch: {})",
+                    typedQueueProperties.queueNameFor(queueName, type),
+                    concurrency, maxConcurrency, settings.getPrefetch());
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.rabbitmqconsumer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-message-type queues: each configured type gets its own queue
+ * (&lt;queue name&gt;.&lt;type&gt;), bound with the type as routing key and consumed by
+ * its own listener container with the settings below.
+ */
+@ConfigurationProperties(prefix = "app.rabbitmq.typed-queues")
+@Data
+public class TypedQueueProperties {
+
+    private boolean enabled;
+
+    /**
+     * Listener settings by message type; keys are lower-case type names
+     */
+    private Map<String, Listener> types = new LinkedHashMap<>();
+
+    /**
+     * Returns the routing key for a message of the given type, or null when the
+     * type has no queue of its own and should use the default routing key
+     */
+    public String routingKeyFor(String type) {
+        if (!enabled || type == null) {
+            return null;
+        }
+        if (types.containsKey(type)) {
+            return type;
+        }
+        String lowerCaseType = type.toLowerCase(Locale.ROOT);
+        return types.containsKey(lowerCaseType) ? lowerCaseType : null;
+    }
+
+    public String queueNameFor(String baseQueueName, String type) {
+        return baseQueueName + "." + type;
+    }
+
+    @Data
+    public static class Listener {
+
+        private int concurrency = 1;
+
+        private int maxConcurrency = 1;
+
+        private int prefetch = 1;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.rabbitmqconsumer.consumer;
+
+import com.example.rabbitmqconsumer.config.RetryProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands failed messages to the delayed retry tiers declared in RabbitMqConfig,
+ * so the listener can acknowledge and move on instead of sleeping between attempts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DelayedRetryHandler {
+
+    private static final int MAX_REASON_LENGTH = 255;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RetryProperties retryProperties;
+
+    @Value("${app.rabbitmq.exchange.name}")
+    private String exchangeName;
+
+    /**
+     * Republishes the message to the retry tier for its next attempt and waits for the broker confirm.
+     * The wait blocks the listener thread on purpose: the original delivery may only be acked once the
+     * retry copy is safely queued, and with AUTO ack that decision has to be made before the listener
+     * returns. It only happens on the failure path, and is bounded by retry.confirm-timeout.
+     *
+     * @return true if the retry is safely queued and the original delivery can be acknowledged;
+     * false if retries are disabled or used up, or the republish failed, in which case the caller
+     * should reject the message (sending it to the DLQ)
+     */
+    public boolean scheduleRetry(Message message, Exception cause) {
+        if (!retryProperties.isEnabled()) {
+            return false;
+        }
+        int retryCount = getRetryCount(message);
+        if (retryCount >= retryProperties.getDelays().size()) {
+            log.warn("Message {} failed after {} retries, giving up", message.getMessageProperties().getMessageId(), retryCount);
+            return false;
+        }
+
+        Duration delay = retryProperties.getDelays().get(retryCount);
+        String retryExchange = retryProperties.exchangeNameFor(exchangeName, delay);
+        Message retry = MessageBuilder.fromMessage(message)
+                .setHeader(RetryProperties.RETRY_COUNT_HEADER, retryCount + 1)
+                .setHeader(RetryProperties.RETRY_REASON_HEADER, reason(cause))
+                .build();
+        try {
+            CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+            rabbitTemplate.send(retryExchange, message.getMessageProperties().getReceivedRoutingKey(), retry, correlationData);
+            CorrelationData.Confirm confirm = correlationData.getFuture()
+                    .get(retryProperties.getConfirmTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            if (!confirm.isAck()) {
+                log.error("Retry of message {} was nacked by the broker: {}",
+                        message.getMessageProperties().getMessageId(), confirm.getReason());
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.error("Failed to schedule retry for message {}: {}", message.getMessageProperties().getMessageId(), e.getMessage());
+            return false;
+        }
+
+        log.info("Scheduled retry {} of {} in {} ms via {}", retryCount + 1, retryProperties.getDelays().size(),
+                delay.toMillis(), retryExchange);
+        return true;
+    }
+
+    /**
+     * Number of retries already scheduled for this message (0 for a first delivery)
+     */
+    public static int getRetryCount(Message message) {
+        Object header = message.getMessageProperties().getHeaders().get(RetryProperties.RETRY_COUNT_HEADER);
+        return header instanceof Number number ? number.intValue() : 0;
+    }
+
+    private static String reason(Exception cause) {
+        String reason = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        return reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+    }
+}
@@ -1,17 +1,36 @@
 package com.example.rabbitmqconsumer.consumer;
 
+import com.example.rabbitmqconsumer.adaptive.ListenerLoadTracker;
+import com.example.rabbitmqconsumer.compression.DecompressingPostProcessor;
+import com.example.rabbitmqconsumer.config.RetryProperties;
 import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.handler.HandlerSaturatedException;
+import com.example.rabbitmqconsumer.loadtest.LoadGenerator;
+import com.example.rabbitmqconsumer.logging.HotPathLogger;
+import com.example.rabbitmqconsumer.metrics.MessagingMetrics;
+import com.example.rabbitmqconsumer.redrive.DlqRedriveService;
+import com.example.rabbitmqconsumer.service.MessagePublisherService;
+import com.example.rabbitmqconsumer.validation.MessagePreValidator;
 import com.example.rabbitmqconsumer.service.MessageProcessingService;
+import com.rabbitmq.client.Channel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @RequiredArgsConstructor
@@ -19,49 +38,227 @@ import java.util.Map;
 public class MessageConsumer {
 
     private final MessageProcessingService messageProcessingService;
+    private final MessageConverter messageConverter;
+    private final ListenerLoadTracker listenerLoadTracker;
+    private final MessagingMetrics messagingMetrics;
+    private final DelayedRetryHandler delayedRetryHandler;
+    private final MessagePreValidator messagePreValidator;
+    private final HotPathLogger hotPathLogger;
+    private final LoadGenerator loadGenerator;
+    private final DecompressingPostProcessor decompressingPostProcessor;
 
-    @RabbitListener(queues = "${app.rabbitmq.queue.name}")
-    public void consumeMessage(
-            @Payload MessageDto messageDto,
-            @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey,
-            Message message) {
+    /**
+     * Listener for message.queue. Headers and properties are checked before the body is
+     * deserialized; malformed messages go straight to the DLQ.
+     */
+    @RabbitListener(id = "message-listener", queues = "${app.rabbitmq.queue.name}",
+            containerFactory = "#{${app.rabbitmq.listener.virtual-threads.enabled:false} "
+                    + "? 'virtualThreadRabbitListenerContainerFactory' : 'rabbitListenerContainerFactory'}",
+            autoStartup = "#{!${app.rabbitmq.listener.batch.enabled:false}}")
+    public void receiveMessage(Message message) {
+        rejectIfMalformed(message);
+        MessageDto messageDto = toMessageDto(message);
+        consumeMessage(messageDto, message.getMessageProperties().getReceivedRoutingKey(), message);
+    }
+
+    public void consumeMessage(MessageDto messageDto, String routingKey, Message message) {
         
+        long consumeStartNanos = System.nanoTime();
+        recordQueueWait(messageDto, message.getMessageProperties().getHeaders());
         try {
-            log.info("Received message: {}", messageDto);
-            log.debug("Routing key: {}", routingKey);
-            log.debug("Message properties: {}", message.getMessageProperties());
-            
+            log.trace("Received message {} with routing key: {}, properties: {}",
+                    messageDto != null ? messageDto.getId() : null, routingKey, message.getMessageProperties());
+
             // Extract headers from message properties
             Map<String, Object> headers = message.getMessageProperties().getHeaders();
-            log.debug("Message headers: {}", headers);
 
             // Validate message
-            if (messageDto == null || messageDto.getId() == null || messageDto.getContent() == null) {
+            if (!isValid(messageDto)) {
                 log.error("Invalid message received: {}", messageDto);
                 throw new IllegalArgumentException("Message validation failed");
             }
 
             // Process the message
-            boolean processed = messageProcessingService.processMessage(messageDto, headers);
+            long startNanos = System.nanoTime();
+            boolean processed = false;
+            try {
+                processed = messageProcessingService.processMessage(messageDto, headers);
+            } finally {
+                listenerLoadTracker.record(message.getMessageProperties().getConsumerQueue(),
+                        System.nanoTime() - startNanos, processed);
+            }
             
             if (processed) {
-                log.info("Successfully processed message with ID: {}", messageDto.getId());
+                long elapsedNanos = System.nanoTime() - consumeStartNanos;
+                messagingMetrics.recordConsume(message.getMessageProperties().getConsumerQueue(),
+                        MessagingMetrics.OUTCOME_SUCCESS, elapsedNanos);
+                hotPathLogger.success("message.consumed", messageDto, elapsedNanos);
+                loadGenerator.recordProcessed(messageDto);
             } else {
                 log.warn("Message processing failed for ID: {}", messageDto.getId());
                 throw new RuntimeException("Message processing failed");
             }
 
+        } catch (HandlerSaturatedException e) {
+            // Backpressure, not a failure: put the message back without using up a retry
+            log.debug("Requeueing message {}: {}", messageDto.getId(), e.getMessage());
+            messagingMetrics.recordConsume(message.getMessageProperties().getConsumerQueue(),
+                    MessagingMetrics.OUTCOME_SATURATED, System.nanoTime() - consumeStartNanos);
+            throw new ImmediateRequeueAmqpException(e.getMessage(), e);
         } catch (Exception e) {
-            log.error("Error processing message: {}", messageDto, e);
-            
+            hotPathLogger.failure("message.consume.failed", messageDto, e);
+
             // Extract headers from message properties for error handling
             Map<String, Object> headers = message.getMessageProperties().getHeaders();
             handleProcessingError(messageDto, e, headers);
-            throw e; // Re-throw to trigger retry mechanism
+            messagingMetrics.recordConsume(message.getMessageProperties().getConsumerQueue(),
+                    MessagingMetrics.OUTCOME_FAILURE, System.nanoTime() - consumeStartNanos);
+
+            // Valid messages are retried later via the delay queues; returning acks this delivery
+            if (isValid(messageDto) && delayedRetryHandler.scheduleRetry(message, e)) {
+                return;
+            }
+            messageProcessingService.recordDeadLettered(messageDto);
+            throw e; // Re-throw to reject the message to the DLQ
         }
     }
 
-    @RabbitListener(queues = "dlq.${app.rabbitmq.queue.name}")
+    /**
+     * Entry point for the per-type listener containers registered by TypedQueueListenerConfig
+     */
+    public void consumeTypedMessage(Message message) {
+        rejectIfMalformed(message);
+        MessageDto messageDto = toMessageDto(message);
+        consumeMessage(messageDto, message.getMessageProperties().getReceivedRoutingKey(), message);
+    }
+
+    /**
+     * Batch variant of consumeMessage(), active only when app.rabbitmq.listener.batch.enabled is set.
+     * Each delivery is acked or rejected individually, so one bad element goes to the DLQ
+     * without redelivering the rest of the batch. Bodies are decompressed here rather than by the
+     * container, so one that can't be decompressed is rejected like any other malformed element.
+     */
+    @RabbitListener(id = "message-batch-listener", queues = "${app.rabbitmq.queue.name}",
+            containerFactory = "batchRabbitListenerContainerFactory",
+            autoStartup = "${app.rabbitmq.listener.batch.enabled:false}")
+    public void consumeBatch(List<Message> messages, Channel channel) throws IOException {
+        log.debug("Received batch of {} messages", messages.size());
+
+        // Deliveries not yet acked or rejected; settled on failure so none are left holding prefetch
+        List<Message> unsettled = new ArrayList<>(messages);
+        try {
+            List<MessageDto> batch = new ArrayList<>(messages.size());
+            List<Message> accepted = new ArrayList<>(messages.size());
+            for (Message delivery : messages) {
+                Message message;
+                try {
+                    message = decompressingPostProcessor.postProcessMessage(delivery);
+                } catch (AmqpRejectAndDontRequeueException e) {
+                    log.error("Undecodable message in batch ({}), rejecting", e.getMessage());
+                    channel.basicReject(delivery.getMessageProperties().getDeliveryTag(), false);
+                    unsettled.remove(delivery);
+                    messageProcessingService.recordDeadLettered(null);
+                    continue;
+                }
+                String rejectReason = messagePreValidator.validate(message);
+                if (rejectReason != null) {
+                    log.error("Malformed message in batch ({}), rejecting without deserializing", rejectReason);
+                    channel.basicReject(message.getMessageProperties().getDeliveryTag(), false);
+                    unsettled.remove(message);
+                    messageProcessingService.recordDeadLettered(null);
+                    continue;
+                }
+                MessageDto messageDto = toMessageDto(message);
+                if (isValid(messageDto)) {
+                    recordQueueWait(messageDto, message.getMessageProperties().getHeaders());
+                    batch.add(messageDto);
+                    accepted.add(message);
+                } else {
+                    log.error("Invalid message received in batch: {}", messageDto);
+                    channel.basicReject(message.getMessageProperties().getDeliveryTag(), false);
+                    unsettled.remove(message);
+                    messageProcessingService.recordDeadLettered(messageDto);
+                }
+            }
+
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            long startNanos = System.nanoTime();
+            List<Boolean> results = messageProcessingService.processBatch(batch);
+            long latencyPerMessage = (System.nanoTime() - startNanos) / batch.size();
+            for (int i = 0; i < accepted.size(); i++) {
+                Message message = accepted.get(i);
+                long deliveryTag = message.getMessageProperties().getDeliveryTag();
+                if (results.get(i) == null) {
+                    // Handler saturated: requeue without counting a failure or using up a retry
+                    listenerLoadTracker.record(message.getMessageProperties().getConsumerQueue(), latencyPerMessage, false);
+                    messagingMetrics.recordConsume(message.getMessageProperties().getConsumerQueue(),
+                            MessagingMetrics.OUTCOME_SATURATED, latencyPerMessage);
+                    channel.basicNack(deliveryTag, false, true);
+                    unsettled.remove(message);
+                    continue;
+                }
+                listenerLoadTracker.record(message.getMessageProperties().getConsumerQueue(),
+                        latencyPerMessage, Boolean.TRUE.equals(results.get(i)));
+                messagingMetrics.recordConsume(message.getMessageProperties().getConsumerQueue(),
+                        Boolean.TRUE.equals(results.get(i)) ? MessagingMetrics.OUTCOME_SUCCESS : MessagingMetrics.OUTCOME_FAILURE,
+                        latencyPerMessage);
+                if (Boolean.TRUE.equals(results.get(i))) {
+                    channel.basicAck(deliveryTag, false);
+                    unsettled.remove(message);
+                    loadGenerator.recordProcessed(batch.get(i));
+                } else {
+                    log.warn("Message processing failed for ID: {}", batch.get(i).getId());
+                    RuntimeException failure = new RuntimeException("Message processing failed");
+                    handleProcessingError(batch.get(i), failure, message.getMessageProperties().getHeaders());
+                    if (delayedRetryHandler.scheduleRetry(message, failure)) {
+                        channel.basicAck(deliveryTag, false);
+                    } else {
+                        channel.basicReject(deliveryTag, false);
+                        messageProcessingService.recordDeadLettered(batch.get(i));
+                    }
+                    unsettled.remove(message);
+                }
+            }
+            log.debug("Batch of {} messages completed", messages.size());
+        } catch (Exception e) {
+            log.error("Batch of {} messages failed, settling {} unsettled deliveries: {}",
+                    messages.size(), unsettled.size(), e.getMessage(), e);
+            settle(unsettled, channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Nacks deliveries left unsettled by a failed batch: requeued on first delivery,
+     * dead-lettered if they were already redelivered, so a poison batch can't loop forever.
+     * Dead-lettered ones are counted without a breakdown: the batch may have failed before conversion.
+     */
+    private void settle(List<Message> unsettled, Channel channel) {
+        for (Message message : unsettled) {
+            boolean requeue = !Boolean.TRUE.equals(message.getMessageProperties().getRedelivered());
+            try {
+                channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, requeue);
+                if (!requeue) {
+                    messageProcessingService.recordDeadLettered(null);
+                }
+            } catch (IOException | RuntimeException nackFailure) {
+                // The broker requeues everything unacked once the channel closes
+                log.error("Failed to nack delivery {}: {}", message.getMessageProperties().getDeliveryTag(),
+                        nackFailure.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Logs dead letters. Off by default (app.rabbitmq.dead-letter.listener-enabled): when it runs
+     * it drains the DLQ, leaving nothing for DlqRedriveService to replay. Dead letters are counted
+     * where they are rejected, so the deadLetterCount in /stats doesn't depend on this listener.
+     */
+    @RabbitListener(id = "dead-letter-listener", queues = "dlq.${app.rabbitmq.queue.name}",
+            autoStartup = "${app.rabbitmq.dead-letter.listener-enabled:false}")
     public void consumeDeadLetterMessage(
             @Payload MessageDto messageDto,
             @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey,
@@ -78,6 +275,47 @@ public class MessageConsumer {
         messageProcessingService.handleDeadLetterMessage(messageDto, headers);
     }
 
+    private void rejectIfMalformed(Message message) {
+        String rejectReason = messagePreValidator.validate(message);
+        if (rejectReason != null) {
+            log.error("Malformed message {} ({}), rejecting without deserializing. Headers: {}",
+                    message.getMessageProperties().getMessageId(), rejectReason, message.getMessageProperties().getHeaders());
+            messageProcessingService.recordDeadLettered(null);
+            throw new AmqpRejectAndDontRequeueException("Malformed message: " + rejectReason);
+        }
+    }
+
+    private MessageDto toMessageDto(Message message) {
+        try {
+            message.getMessageProperties().setInferredArgumentType(MessageDto.class);
+            return (MessageDto) messageConverter.fromMessage(message);
+        } catch (MessageConversionException | ClassCastException e) {
+            log.error("Failed to convert message: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records the time since MessagePublisherService stamped the message. Messages without the
+     * stamp are skipped, and so are retried and redriven ones: their stamp predates the retry
+     * delay or the time spent in the DLQ.
+     */
+    private void recordQueueWait(MessageDto messageDto, Map<String, Object> headers) {
+        if (messageDto == null || headers == null
+                || !(headers.get(MessagePublisherService.PUBLISHED_AT_HEADER) instanceof Number publishedAt)
+                || headers.containsKey(RetryProperties.RETRY_COUNT_HEADER)
+                || headers.containsKey(DlqRedriveService.REDRIVEN_AT_HEADER)) {
+            return;
+        }
+        // Publisher and consumer clocks can differ slightly across hosts
+        long waitMicros = Math.max(0, MessagePublisherService.currentTimeMicros() - publishedAt.longValue());
+        messageProcessingService.recordQueueWait(messageDto, TimeUnit.MICROSECONDS.toNanos(waitMicros));
+    }
+
+    private boolean isValid(MessageDto messageDto) {
+        return messageDto != null && messageDto.getId() != null && messageDto.getContent() != null;
+    }
+
     private void handleProcessingError(MessageDto messageDto, Exception e, Map<String, Object> headers) {
         log.error("Handling processing error for message ID: {}, Error: {}", 
                  messageDto != null ? messageDto.getId() : "unknown", e.getMessage());
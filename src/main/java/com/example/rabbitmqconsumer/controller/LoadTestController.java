@@ -0,0 +1,58 @@
+package com.example.rabbitmqconsumer.controller;
+
+import com.example.rabbitmqconsumer.dto.LoadTestRequest;
+import com.example.rabbitmqconsumer.loadtest.LoadGenerator;
+import com.example.rabbitmqconsumer.loadtest.LoadTestRun;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Load generation:
+    POST   /api/loadtest  starts publishing generated messages (rate, duration, arrival, type mix, payload size in the body)
+    GET    /api/loadtest  progress and publish / end-to-end latency percentiles of the current or last run
+    DELETE /api/loadtest  stops publishing; already published messages still drain
+ */
+@RestController
+@RequestMapping("/api/loadtest")
+@RequiredArgsConstructor
+public class LoadTestController {
+
+    private final LoadGenerator loadGenerator;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> startLoadTest(@RequestBody(required = false) LoadTestRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            LoadTestRun run = loadGenerator.start(request != null ? request : new LoadTestRequest());
+            response.put("status", "started");
+            response.put("run", run);
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            response.put("run", loadGenerator.getCurrentRun());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<LoadTestRun> getLoadTestStatus() {
+        LoadTestRun run = loadGenerator.getCurrentRun();
+        return run != null ? ResponseEntity.ok(run) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<LoadTestRun> cancelLoadTest() {
+        LoadTestRun run = loadGenerator.cancel();
+        return run != null ? ResponseEntity.ok(run) : ResponseEntity.notFound().build();
+    }
+}
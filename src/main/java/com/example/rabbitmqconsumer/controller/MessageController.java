@@ -1,15 +1,30 @@
 package com.example.rabbitmqconsumer.controller;
 
+import com.example.rabbitmqconsumer.dto.BulkPublishResult;
 import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.dto.ProcessedMessagePage;
 import com.example.rabbitmqconsumer.service.MessageProcessingService;
 import com.example.rabbitmqconsumer.service.MessagePublisherService;
+import com.example.rabbitmqconsumer.service.PublishRejectedException;
+import com.example.rabbitmqconsumer.stats.StatsCounts;
+import com.example.rabbitmqconsumer.stats.StatsSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -20,6 +35,13 @@ public class MessageController {
 
     private final MessageProcessingService messageProcessingService;
     private final MessagePublisherService messagePublisherService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.rabbitmq.publisher.bulk-batch-size:1000}")
+    private int bulkBatchSize;
+
+    @Value("${app.processed-store.max-page-size:1000}")
+    private int maxPageSize;
 
     @PostMapping("/publish")
     public ResponseEntity<Map<String, String>> publishMessage(@Valid @RequestBody MessageDto messageDto) {
@@ -46,30 +68,60 @@ public class MessageController {
             @RequestParam(defaultValue = "order") String type) {
         
         Map<String, Object> response = new HashMap<>();
-        
-        for (int i = 0; i < count; i++) {
-            MessageDto message = new MessageDto(
-                UUID.randomUUID().toString(),
-                String.format("Test %s message #%d", type, i + 1),
-                type
-            );
-            messagePublisherService.publishMessage(message);
+        List<Map<String, Object>> batches = new ArrayList<>();
+        long totalNanos = 0;
+
+        // Publish in channel-scoped batches, each confirmed once at its end
+        for (int offset = 0; offset < count; offset += bulkBatchSize) {
+            int batchSize = Math.min(bulkBatchSize, count - offset);
+            List<MessageDto> batch = new ArrayList<>(batchSize);
+            for (int i = offset; i < offset + batchSize; i++) {
+                batch.add(new MessageDto(
+                    UUID.randomUUID().toString(),
+                    String.format("Test %s message #%d", type, i + 1),
+                    type
+                ));
+            }
+            BulkPublishResult result = messagePublisherService.publishBatch(batch);
+            totalNanos += result.getElapsedNanos();
+
+            Map<String, Object> batchStats = new HashMap<>();
+            batchStats.put("publishedCount", result.getPublishedCount());
+            batchStats.put("durationMs", result.getElapsedMillis());
+            batchStats.put("messagesPerSecond", result.getMessagesPerSecond());
+            batches.add(batchStats);
         }
-        
+        BulkPublishResult total = new BulkPublishResult(count, totalNanos);
+
         response.put("status", "success");
         response.put("publishedCount", count);
         response.put("type", type);
+        response.put("batchCount", batches.size());
+        response.put("durationMs", total.getElapsedMillis());
+        response.put("messagesPerSecond", total.getMessagesPerSecond());
+        response.put("batches", batches);
         response.put("message", "Bulk messages published successfully");
         
         return ResponseEntity.ok(response);
     }
 
+    /*
+     * Totals and per type/source/priority breakdown, all from one consistent snapshot.
+     * epoch counts the resets (DELETE /processed); counts cover everything since epochStart.
+     */
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getMessageStats() {
+        StatsSnapshot snapshot = messageProcessingService.getStats();
+        StatsCounts total = snapshot.total();
         Map<String, Object> stats = new HashMap<>();
-        stats.put("processedCount", messageProcessingService.getProcessedCount());
-        stats.put("failedCount", messageProcessingService.getFailedCount());
-        stats.put("deadLetterCount", messageProcessingService.getDeadLetterCount());
+        stats.put("processedCount", total.processed());
+        stats.put("failedCount", total.failed());
+        stats.put("deadLetterCount", total.deadLetter());
+        stats.put("byType", snapshot.byType());
+        stats.put("bySource", snapshot.bySource());
+        stats.put("byPriority", snapshot.byPriority());
+        stats.put("epoch", snapshot.epoch());
+        stats.put("epochStart", snapshot.since().toString());
         stats.put("timestamp", LocalDateTime.now());
         
         return ResponseEntity.ok(stats);
@@ -80,6 +132,39 @@ public class MessageController {
         return ResponseEntity.ok(messageProcessingService.getProcessedMessages());
     }
 
+    /*
+     * Cursor pagination: start with cursor=0 (or omit it) and pass each page's
+     * nextCursor back until hasMore is false. limit is capped at max-page-size.
+     */
+    @GetMapping(value = "/processed", params = "limit")
+    public ResponseEntity<ProcessedMessagePage> getProcessedMessagesPage(
+            @RequestParam(defaultValue = "0") long cursor,
+            @RequestParam int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        return ResponseEntity.ok(messageProcessingService.getProcessedMessagesPage(cursor, pageSize));
+    }
+
+    /*
+     * Streams processed messages as NDJSON (one MessageDto per line) straight
+     * from the store to the response, without building a copy first.
+     */
+    @GetMapping(value = "/processed/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProcessedMessages(
+            @RequestParam(defaultValue = "0") long cursor) {
+        StreamingResponseBody body = outputStream ->
+                messageProcessingService.forEachProcessedMessage(cursor, (position, messageDto) -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(messageDto));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @DeleteMapping("/processed")
     public ResponseEntity<Map<String, String>> clearProcessedMessages() {
         messageProcessingService.clearProcessedMessages();
@@ -108,4 +193,24 @@ public class MessageController {
         
         return ResponseEntity.ok(response);
     }
+
+    /*
+     * Publishes refused by MessagePublisherService before reaching the broker:
+     * 503 while the broker is blocking publishers (memory or disk alarm),
+     * 429 when the publisher's own in-flight or confirm limits are reached.
+     * Either way the request thread returns immediately instead of waiting on the broker.
+     */
+    @ExceptionHandler(PublishRejectedException.class)
+    public ResponseEntity<Map<String, String>> handlePublishRejected(PublishRejectedException e) {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("reason", e.getReason().name());
+        response.put("message", e.getMessage());
+
+        HttpStatus status = e.getReason() == PublishRejectedException.Reason.BROKER_BLOCKED
+                ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(response);
+    }
 }
\ No newline at end of file
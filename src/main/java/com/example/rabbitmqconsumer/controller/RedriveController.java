@@ -0,0 +1,54 @@
+package com.example.rabbitmqconsumer.controller;
+
+import com.example.rabbitmqconsumer.dto.RedriveRequest;
+import com.example.rabbitmqconsumer.redrive.DlqRedriveService;
+import com.example.rabbitmqconsumer.redrive.RedriveJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * DLQ redrive:
+    POST   /api/dlq/redrive  starts replaying dlq.message.queue (filters and rate in the body)
+    GET    /api/dlq/redrive  progress of the current or last run
+    DELETE /api/dlq/redrive  stops the current run after its in-flight batch
+ */
+@RestController
+@RequestMapping("/api/dlq/redrive")
+@RequiredArgsConstructor
+public class RedriveController {
+
+    private final DlqRedriveService redriveService;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> startRedrive(@RequestBody(required = false) RedriveRequest request) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            RedriveJob job = redriveService.start(request != null ? request : new RedriveRequest());
+            response.put("status", "started");
+            response.put("job", job);
+            return ResponseEntity.accepted().body(response);
+        } catch (IllegalStateException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            response.put("job", redriveService.getCurrentJob());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<RedriveJob> getRedriveStatus() {
+        RedriveJob job = redriveService.getCurrentJob();
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<RedriveJob> cancelRedrive() {
+        RedriveJob job = redriveService.cancel();
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+}
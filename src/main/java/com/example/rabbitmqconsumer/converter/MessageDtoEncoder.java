@@ -0,0 +1,103 @@
+package com.example.rabbitmqconsumer.converter;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Publish-side MessageDto encoder for MessagePublisherService. Serializes with a pre-built
+ * ObjectWriter into a growable buffer borrowed from a small shared pool, so the only
+ * per-message allocations are the exact-size body and the MessageProperties, which are filled
+ * from precomputed constants. The pool is bounded by CPU count rather than tied to threads:
+ * a buffer is only held while a message is serialized, and publishers on virtual threads
+ * (one short-lived thread per request) would never reuse a per-thread buffer. The output matches what the configured MessageConverter publishes
+ * (content type, __TypeId__, messageId and type), so consumers can't tell the two apart.
+ */
+public class MessageDtoEncoder {
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    /**
+     * Buffers grown beyond this by an unusually large message are dropped rather than returned to the pool
+     */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static final String TYPE_ID = MessageDto.class.getName();
+    private static final String UTF_8 = StandardCharsets.UTF_8.name();
+
+    private final ObjectWriter writer;
+    private final String contentType;
+    private final String contentEncoding;
+    private final BlockingQueue<ReusableBuffer> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * @param wireFormat json or smile, as app.rabbitmq.wire-format
+     */
+    public MessageDtoEncoder(String wireFormat) {
+        boolean smile = "smile".equalsIgnoreCase(wireFormat);
+        ObjectMapper objectMapper = smile ? new ObjectMapper(new SmileFactory()) : new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.writer = objectMapper.writerFor(MessageDto.class);
+        this.contentType = smile ? SmileMessageConverter.CONTENT_TYPE_SMILE : MessageProperties.CONTENT_TYPE_JSON;
+        this.contentEncoding = smile ? null : UTF_8;
+    }
+
+    public Message encode(MessageDto messageDto) {
+        ReusableBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new ReusableBuffer(INITIAL_BUFFER_SIZE);
+        }
+        byte[] body;
+        try {
+            writer.writeValue(buffer, messageDto);
+            body = buffer.toByteArray();
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to encode message " + messageDto.getId(), e);
+        } finally {
+            buffer.reset();
+            // A full pool or an oversized buffer: leave it to the garbage collector
+            if (buffer.capacity() <= MAX_RETAINED_BUFFER_SIZE) {
+                buffers.offer(buffer);
+            }
+        }
+
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(contentType);
+        properties.setContentEncoding(contentEncoding);
+        properties.setContentLength(body.length);
+        properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, TYPE_ID);
+        properties.setMessageId(messageDto.getId());
+        properties.setType(messageDto.getType());
+        return new Message(body, properties);
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    private static final class ReusableBuffer extends ByteArrayOutputStream {
+
+        ReusableBuffer(int size) {
+            super(size);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
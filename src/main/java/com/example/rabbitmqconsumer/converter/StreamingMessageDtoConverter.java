@@ -0,0 +1,164 @@
+package com.example.rabbitmqconsumer.converter;
+
+import com.example.rabbitmqconsumer.dto.LazyMessageDto;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * JSON MessageConverter that reads MessageDtos straight from the body bytes with a streaming
+ * JsonParser instead of building a tree through databind. The fixed-layout timestamp is parsed
+ * from the parser's char buffer and metadata is kept as raw bytes until first read
+ * (LazyMessageDto). Anything else - other target types, non-UTF-8 bodies, and bodies the fast
+ * path can't handle - goes to the delegate, which also does all serialization.
+ */
+@Slf4j
+public class StreamingMessageDtoConverter implements MessageConverter {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final MessageConverter delegate;
+    private final JsonFactory jsonFactory;
+    private final ObjectReader metadataReader;
+
+    public StreamingMessageDtoConverter(MessageConverter delegate) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+        this.delegate = delegate;
+        this.jsonFactory = objectMapper.getFactory();
+        this.metadataReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() { });
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        return delegate.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        if (!isMessageDtoJson(message.getMessageProperties())) {
+            return delegate.fromMessage(message);
+        }
+        try {
+            return read(message.getBody());
+        } catch (IOException | RuntimeException e) {
+            log.debug("Streaming decode failed, falling back to {}: {}", delegate.getClass().getSimpleName(), e.getMessage());
+            return delegate.fromMessage(message);
+        }
+    }
+
+    private boolean isMessageDtoJson(MessageProperties properties) {
+        String contentType = properties.getContentType();
+        String encoding = properties.getContentEncoding();
+        if (contentType == null || !contentType.contains("json")
+                || (encoding != null && !"UTF-8".equalsIgnoreCase(encoding))) {
+            return false;
+        }
+        if (properties.getInferredArgumentType() != null) {
+            return properties.getInferredArgumentType() == MessageDto.class;
+        }
+        return MessageDto.class.getName().equals(properties.getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME));
+    }
+
+    private LazyMessageDto read(byte[] body) throws IOException {
+        LazyMessageDto messageDto = new LazyMessageDto();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id" -> messageDto.setId(text(parser, value));
+                    case "content" -> messageDto.setContent(text(parser, value));
+                    case "type" -> messageDto.setType(text(parser, value));
+                    case "source" -> messageDto.setSource(text(parser, value));
+                    case "priority" -> messageDto.setPriority(text(parser, value));
+                    case "timestamp" -> messageDto.setTimestamp(value == JsonToken.VALUE_NULL ? null : timestamp(parser, value));
+                    case "retryCount" -> messageDto.setRetryCount(value == JsonToken.VALUE_NULL ? null : parser.getIntValue());
+                    case "metadata" -> readMetadata(parser, value, body, messageDto);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT) {
+                throw new JsonParseException(parser, "Unexpected token " + parser.currentToken());
+            }
+        }
+        return messageDto;
+    }
+
+    private void readMetadata(JsonParser parser, JsonToken value, byte[] body, LazyMessageDto messageDto) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            messageDto.setMetadata(null);
+            return;
+        }
+        if (value != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "metadata must be an object");
+        }
+        int start = (int) parser.currentTokenLocation().getByteOffset();
+        parser.skipChildren();
+        int end = (int) parser.currentLocation().getByteOffset();
+        if (start < 0 || end > body.length || body[start] != '{' || body[end - 1] != '}') {
+            throw new JsonParseException(parser, "Could not locate metadata bytes");
+        }
+        messageDto.setRawMetadata(Arrays.copyOfRange(body, start, end), metadataReader);
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!value.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a scalar value");
+        }
+        return parser.getText();
+    }
+
+    /**
+     * Parses "yyyy-MM-dd HH:mm:ss" (MessageDto's @JsonFormat) without creating a String
+     */
+    private static LocalDateTime timestamp(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, "timestamp must be a string");
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        if (parser.getTextLength() == 19 && chars[offset + 4] == '-' && chars[offset + 7] == '-'
+                && chars[offset + 10] == ' ' && chars[offset + 13] == ':' && chars[offset + 16] == ':') {
+            return LocalDateTime.of(digits(chars, offset, 4), digits(chars, offset + 5, 2), digits(chars, offset + 8, 2),
+                    digits(chars, offset + 11, 2), digits(chars, offset + 14, 2), digits(chars, offset + 17, 2));
+        }
+        return LocalDateTime.parse(parser.getText(), TIMESTAMP_FORMAT);
+    }
+
+    private static int digits(char[] chars, int offset, int count) {
+        int result = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeException("Invalid timestamp digit: " + chars[i]);
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+}
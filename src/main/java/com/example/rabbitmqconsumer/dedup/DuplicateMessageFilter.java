@@ -0,0 +1,134 @@
+package com.example.rabbitmqconsumer.dedup;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Detects redelivered messages by ID so already-completed work is not repeated.
+ *
+ * A Bloom filter answers "definitely new" for the common case without touching
+ * any map. Only IDs the filter may have seen are checked against a bounded,
+ * exact window of recently processed IDs. IDs are remembered for at least the
+ * retention period: the Bloom filter is kept as two generations that rotate
+ * every retention period, since a Bloom filter cannot forget single entries.
+ */
+@Slf4j
+public class DuplicateMessageFilter implements MeterBinder {
+
+    private final boolean enabled;
+    private final long retentionNanos;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final LongSupplier nanoClock;
+    private final Cache<String, Boolean> recentIds;
+
+    private volatile BloomFilter currentGeneration;
+    private volatile BloomFilter previousGeneration;
+    private volatile long generationStart;
+
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder unique = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+
+    public DuplicateMessageFilter(boolean enabled, Duration retention, long maxEntries, double falsePositiveRate) {
+        this(enabled, retention, maxEntries, falsePositiveRate, System::nanoTime);
+    }
+
+    DuplicateMessageFilter(boolean enabled, Duration retention, long maxEntries, double falsePositiveRate,
+                           LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.retentionNanos = retention.toNanos();
+        this.expectedInsertions = maxEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.nanoClock = nanoClock;
+        this.recentIds = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(retention)
+                .ticker(nanoClock::getAsLong)
+                .executor(Runnable::run)
+                .build();
+        this.currentGeneration = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.previousGeneration = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.generationStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * Returns true if a message with this ID was already processed within the retention period
+     */
+    public boolean isDuplicate(String messageId) {
+        if (!enabled || messageId == null) {
+            return false;
+        }
+        rotateIfExpired();
+
+        if (!currentGeneration.mightContain(messageId) && !previousGeneration.mightContain(messageId)) {
+            unique.increment();
+            return false;
+        }
+        if (recentIds.getIfPresent(messageId) != null) {
+            duplicates.increment();
+            return true;
+        }
+        bloomFalsePositives.increment();
+        unique.increment();
+        return false;
+    }
+
+    /**
+     * Records a successfully processed message ID so later redeliveries are recognised
+     */
+    public void markProcessed(String messageId) {
+        if (!enabled || messageId == null) {
+            return;
+        }
+        rotateIfExpired();
+        currentGeneration.add(messageId);
+        recentIds.put(messageId, Boolean.TRUE);
+    }
+
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    public long getUniqueCount() {
+        return unique.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("messages.dedup.checks", duplicates, LongAdder::sum)
+                .description("Deliveries recognised as duplicates and skipped")
+                .tag("result", "duplicate")
+                .register(registry);
+        FunctionCounter.builder("messages.dedup.checks", unique, LongAdder::sum)
+                .description("Deliveries seen for the first time")
+                .tag("result", "unique")
+                .register(registry);
+        FunctionCounter.builder("messages.dedup.bloom.false.positives", bloomFalsePositives, LongAdder::sum)
+                .description("Bloom filter hits that the exact window did not confirm")
+                .register(registry);
+    }
+
+    private void rotateIfExpired() {
+        if (nanoClock.getAsLong() - generationStart < retentionNanos) {
+            return;
+        }
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            if (now - generationStart >= retentionNanos) {
+                previousGeneration = currentGeneration;
+                currentGeneration = new BloomFilter(expectedInsertions, falsePositiveRate);
+                generationStart = now;
+                log.debug("Rotated duplicate filter generation");
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.rabbitmqconsumer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Outcome of publishing one batch of messages on a single channel.
+ */
+@Data
+@AllArgsConstructor
+public class BulkPublishResult {
+
+    private int publishedCount;
+
+    private long elapsedNanos;
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public long getMessagesPerSecond() {
+        return elapsedNanos > 0 ? publishedCount * 1_000_000_000L / elapsedNanos : publishedCount;
+    }
+}
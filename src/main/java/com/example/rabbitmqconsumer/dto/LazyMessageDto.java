@@ -0,0 +1,80 @@
+package com.example.rabbitmqconsumer.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * MessageDto produced by StreamingMessageDtoConverter. metadata is kept as the raw JSON
+ * bytes of the object and only parsed into a Map the first time it is read, so handlers
+ * that never look at it don't pay for it. Equality with MessageDto is unchanged.
+ */
+public class LazyMessageDto extends MessageDto {
+
+    /**
+     * Unread metadata. Bytes and reader are published together, so a reader never sees one without the other;
+     * null once metadata is materialized. Stored DTOs are serialized by concurrent requests.
+     */
+    private volatile RawMetadata rawMetadata;
+
+    /**
+     * Sets metadata from the raw bytes of a JSON object, to be read with metadataReader on first access
+     */
+    public synchronized void setRawMetadata(byte[] rawMetadata, ObjectReader metadataReader) {
+        super.setMetadata(null);
+        this.rawMetadata = new RawMetadata(rawMetadata, metadataReader);
+    }
+
+    @JsonIgnore
+    public boolean isMetadataMaterialized() {
+        return rawMetadata == null;
+    }
+
+    @Override
+    public Map<String, Object> getMetadata() {
+        if (rawMetadata != null) {
+            materializeMetadata();
+        }
+        return super.getMetadata();
+    }
+
+    @Override
+    public synchronized void setMetadata(Map<String, Object> metadata) {
+        super.setMetadata(metadata);
+        rawMetadata = null;
+    }
+
+    private synchronized void materializeMetadata() {
+        RawMetadata raw = rawMetadata;
+        if (raw == null) {
+            return;
+        }
+        try {
+            super.setMetadata(raw.reader().readValue(raw.bytes()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid metadata for message " + getId(), e);
+        }
+        // Volatile write after the map is set: threads that then see null also see the map
+        rawMetadata = null;
+    }
+
+    /**
+     * Same format as MessageDto.toString(), but shows unread metadata as JSON instead of parsing it
+     */
+    @Override
+    public String toString() {
+        RawMetadata raw = rawMetadata;
+        if (raw == null) {
+            return super.toString();
+        }
+        return "MessageDto(id=" + getId() + ", content=" + getContent() + ", type=" + getType()
+                + ", timestamp=" + getTimestamp() + ", source=" + getSource() + ", priority=" + getPriority()
+                + ", metadata=" + new String(raw.bytes(), StandardCharsets.UTF_8) + ", retryCount=" + getRetryCount() + ")";
+    }
+
+    private record RawMetadata(byte[] bytes, ObjectReader reader) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.rabbitmqconsumer.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Shape of a load test run. Unset values fall back to the app.loadtest defaults.
+ */
+@Data
+@NoArgsConstructor
+public class LoadTestRequest {
+
+    /**
+     * Target messages published per second
+     */
+    private Integer rate;
+
+    private Integer durationSeconds;
+
+    /**
+     * constant (fixed interval) or poisson (exponential inter-arrival times, same mean rate)
+     */
+    private String arrival;
+
+    /**
+     * Relative weight per message type, e.g. {"order": 3, "notification": 1}
+     */
+    private Map<String, Integer> typeMix;
+
+    /**
+     * Size of the generated content field, in bytes
+     */
+    private Integer payloadBytes;
+}
@@ -0,0 +1,23 @@
+package com.example.rabbitmqconsumer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of processed messages, oldest first. Pass nextCursor back as the
+ * cursor to fetch the following page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedMessagePage {
+
+    private List<MessageDto> messages;
+
+    private long nextCursor;
+
+    private boolean hasMore;
+}
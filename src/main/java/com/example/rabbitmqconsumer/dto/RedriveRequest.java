@@ -0,0 +1,48 @@
+package com.example.rabbitmqconsumer.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Which dead-lettered messages to replay and how fast. Empty filters match everything;
+ * unset limits fall back to the app.rabbitmq.redrive defaults.
+ */
+@Data
+@NoArgsConstructor
+public class RedriveRequest {
+
+    /**
+     * Message types to redrive (case-insensitive)
+     */
+    private List<String> types;
+
+    /**
+     * x-death reasons to redrive: rejected, expired, maxlen, delivery_limit
+     */
+    private List<String> reasons;
+
+    /**
+     * Only messages dead-lettered at or after this time
+     */
+    private Instant from;
+
+    /**
+     * Only messages dead-lettered before this time
+     */
+    private Instant to;
+
+    /**
+     * Max messages republished per second
+     */
+    private Integer rate;
+
+    private Integer batchSize;
+
+    /**
+     * Stop after republishing this many messages
+     */
+    private Long maxMessages;
+}
@@ -0,0 +1,30 @@
+package com.example.rabbitmqconsumer.handler;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Fallback for message types no other handler claims
+ */
+@Component
+@Slf4j
+public class GenericMessageHandler extends SimulatedMessageHandler {
+
+    @Override
+    public Set<String> getSupportedTypes() {
+        return Set.of(ANY_TYPE);
+    }
+
+    @Override
+    public boolean handle(MessageDto messageDto) {
+        log.debug("Processing generic message: {}", messageDto.getContent());
+        
+        simulateProcessingDelay(150);
+        
+        log.debug("Generic message processed successfully for ID: {}", messageDto.getId());
+        return true;
+    }
+}
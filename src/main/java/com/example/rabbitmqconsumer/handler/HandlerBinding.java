@@ -0,0 +1,83 @@
+package com.example.rabbitmqconsumer.handler;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A registered MessageHandler together with the concurrency limit it declared.
+ * Handlers that declare a limit share one fair semaphore across all of their types.
+ */
+public class HandlerBinding {
+
+    private final String type;
+    private final MessageHandler handler;
+    private final Semaphore permits;
+
+    HandlerBinding(String type, MessageHandler handler, Semaphore permits) {
+        this.type = type;
+        this.handler = handler;
+        this.permits = permits;
+    }
+
+    /**
+     * Canonical (lower-case) message type this binding was registered for
+     */
+    public String getType() {
+        return type;
+    }
+
+    public MessageHandler getHandler() {
+        return handler;
+    }
+
+    public boolean supportsBatch() {
+        return handler.supportsBatch();
+    }
+
+    public boolean handle(MessageDto messageDto) {
+        acquire();
+        try {
+            return handler.handle(messageDto);
+        } finally {
+            release();
+        }
+    }
+
+    public List<Boolean> handleBatch(List<MessageDto> messages) {
+        acquire();
+        try {
+            return handler.handleBatch(messages);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Waits up to the handler's permit wait timeout for a concurrency slot
+     *
+     * @throws HandlerSaturatedException if no slot freed up in time
+     */
+    private void acquire() {
+        if (permits == null) {
+            return;
+        }
+        try {
+            if (!permits.tryAcquire(handler.getPermitWaitTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new HandlerSaturatedException("Handler for message type '" + type + "' is saturated ("
+                        + handler.getMaxConcurrency() + " in flight)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for handler of message type '" + type + "'", e);
+        }
+    }
+
+    private void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.rabbitmqconsumer.handler;
+
+/**
+ * Thrown when a message waited getPermitWaitTimeout() for one of its handler's getMaxConcurrency()
+ * slots without getting one. This is backpressure, not a processing failure: the message is
+ * requeued as is, without counting a failure or using up a delayed retry.
+ */
+public class HandlerSaturatedException extends IllegalStateException {
+
+    public HandlerSaturatedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.rabbitmqconsumer.handler;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Processes messages of one or more types. Every MessageHandler bean is picked up
+ * by MessageHandlerRegistry; adding a message type means adding a handler bean,
+ * not editing MessageProcessingService.
+ */
+public interface MessageHandler {
+
+    /**
+     * Wildcard type for the handler that processes messages no other handler claims
+     */
+    String ANY_TYPE = "*";
+
+    /**
+     * Message types handled by this handler, matched case-insensitively
+     */
+    Set<String> getSupportedTypes();
+
+    /**
+     * Processes one message. Returns true on success; false or an exception marks it failed.
+     */
+    boolean handle(MessageDto messageDto);
+
+    /**
+     * Max number of messages (or batches) this handler processes at once; 0 means unlimited
+     */
+    default int getMaxConcurrency() {
+        return 0;
+    }
+
+    /**
+     * How long a message may wait for one of getMaxConcurrency() slots. After that the listener
+     * thread is released and the message is requeued (HandlerSaturatedException); it does not
+     * count as a failure. This only limits the wait for a slot, not how long handle() runs:
+     * there is no execution timeout, so a handler that can block must bound its own calls
+     * (e.g. client timeouts), or a hung call keeps its slot.
+     */
+    default Duration getPermitWaitTimeout() {
+        return Duration.ofSeconds(5);
+    }
+
+    /**
+     * Whether handleBatch() processes a batch more cheaply than one handle() call per message
+     */
+    default boolean supportsBatch() {
+        return false;
+    }
+
+    /**
+     * Processes a batch, returning one result per message in the same order
+     */
+    default List<Boolean> handleBatch(List<MessageDto> messages) {
+        List<Boolean> results = new ArrayList<>(messages.size());
+        for (MessageDto messageDto : messages) {
+            try {
+                results.add(handle(messageDto));
+            } catch (Exception e) {
+                results.add(false);
+            }
+        }
+        return results;
+    }
+}
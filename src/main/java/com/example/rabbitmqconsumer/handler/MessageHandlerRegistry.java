@@ -0,0 +1,94 @@
+package com.example.rabbitmqconsumer.handler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Maps message types to their MessageHandler beans.
+ * The type -> handler table is built once at startup. Lookups by the exact type
+ * string seen on the wire are cached, so the hot path is a single hash lookup
+ * with no lower-casing.
+ */
+@Component
+@Slf4j
+public class MessageHandlerRegistry {
+
+    static final String FALLBACK_TYPE = "generic";
+
+    // Bounds the cache of raw type spellings so arbitrary producer input cannot grow it forever
+    private static final int MAX_CACHED_SPELLINGS = 1024;
+
+    private final Map<String, HandlerBinding> bindingsByType;
+    private final HandlerBinding fallback;
+    private final Map<String, HandlerBinding> resolvedSpellings = new ConcurrentHashMap<>();
+
+    public MessageHandlerRegistry(List<MessageHandler> handlers) {
+        Map<String, HandlerBinding> bindings = new HashMap<>();
+        Map<MessageHandler, Semaphore> permitsByHandler = new IdentityHashMap<>();
+        HandlerBinding fallbackBinding = null;
+
+        for (MessageHandler handler : handlers) {
+            Semaphore permits = handler.getMaxConcurrency() > 0
+                    ? permitsByHandler.computeIfAbsent(handler, h -> new Semaphore(h.getMaxConcurrency(), true))
+                    : null;
+            for (String supportedType : handler.getSupportedTypes()) {
+                if (MessageHandler.ANY_TYPE.equals(supportedType)) {
+                    if (fallbackBinding != null) {
+                        throw new IllegalStateException("More than one fallback MessageHandler registered");
+                    }
+                    fallbackBinding = new HandlerBinding(FALLBACK_TYPE, handler, permits);
+                    continue;
+                }
+                String type = supportedType.toLowerCase(Locale.ROOT);
+                HandlerBinding binding = new HandlerBinding(type, handler, permits);
+                if (bindings.putIfAbsent(type, binding) != null) {
+                    throw new IllegalStateException("More than one MessageHandler registered for type: " + type);
+                }
+                log.info("Registered {} for message type '{}' (max concurrency: {}, permit wait timeout: {}, batch: {})",
+                        handler.getClass().getSimpleName(), type, handler.getMaxConcurrency(),
+                        handler.getPermitWaitTimeout(), handler.supportsBatch());
+            }
+        }
+        if (fallbackBinding == null) {
+            throw new IllegalStateException("No fallback MessageHandler registered for type '" + MessageHandler.ANY_TYPE + "'");
+        }
+
+        this.bindingsByType = Map.copyOf(bindings);
+        this.fallback = fallbackBinding;
+    }
+
+    /**
+     * Returns the binding for the given message type, falling back to the generic handler
+     */
+    public HandlerBinding resolve(String type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Message type is missing");
+        }
+        HandlerBinding binding = resolvedSpellings.get(type);
+        if (binding != null) {
+            return binding;
+        }
+        binding = bindingsByType.getOrDefault(type.toLowerCase(Locale.ROOT), fallback);
+        if (resolvedSpellings.size() < MAX_CACHED_SPELLINGS) {
+            resolvedSpellings.put(type, binding);
+        }
+        return binding;
+    }
+
+    /**
+     * Message types with a dedicated handler (the fallback is not included)
+     */
+    public Set<String> getRegisteredTypes() {
+        return Collections.unmodifiableSet(bindingsByType.keySet());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.rabbitmqconsumer.handler;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@Slf4j
+public class NotificationMessageHandler extends SimulatedMessageHandler {
+
+    @Override
+    public Set<String> getSupportedTypes() {
+        return Set.of("notification");
+    }
+
+    @Override
+    public boolean handle(MessageDto messageDto) {
+        log.debug("Processing notification message: {}", messageDto.getContent());
+        
+        // Simulate notification sending
+        simulateProcessingDelay(100);
+        
+        log.debug("Notification sent successfully for ID: {}", messageDto.getId());
+        return true;
+    }
+
+    @Override
+    public boolean supportsBatch() {
+        return true;
+    }
+
+    // Notifications go out in one bulk send, so a batch costs about as much as one message
+    @Override
+    public List<Boolean> handleBatch(List<MessageDto> messages) {
+        log.debug("Sending {} notifications in one batch", messages.size());
+
+        simulateProcessingDelay(100);
+
+        log.debug("Batch of {} notifications sent successfully", messages.size());
+        return Collections.nCopies(messages.size(), true);
+    }
+}
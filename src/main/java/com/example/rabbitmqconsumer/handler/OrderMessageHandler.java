@@ -0,0 +1,45 @@
+package com.example.rabbitmqconsumer.handler;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Component
+@Slf4j
+public class OrderMessageHandler extends SimulatedMessageHandler {
+
+    @Override
+    public Set<String> getSupportedTypes() {
+        return Set.of("order");
+    }
+
+    @Override
+    public boolean handle(MessageDto messageDto) {
+        log.debug("Processing order message: {}", messageDto.getContent());
+        
+        // Simulate order processing logic
+        if (messageDto.getContent().contains("invalid")) {
+            throw new RuntimeException("Invalid order data");
+        }
+        
+        // Simulate some processing time
+        simulateProcessingDelay(500);
+        
+        log.debug("Order processed successfully for ID: {}", messageDto.getId());
+        return true;
+    }
+
+    // Slow handler: capped so orders cannot occupy every listener thread
+    @Override
+    public int getMaxConcurrency() {
+        return 3;
+    }
+
+    @Override
+    public Duration getPermitWaitTimeout() {
+        return Duration.ofSeconds(2);
+    }
+}
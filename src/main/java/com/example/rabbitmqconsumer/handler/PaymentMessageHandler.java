@@ -0,0 +1,43 @@
+package com.example.rabbitmqconsumer.handler;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Component
+@Slf4j
+public class PaymentMessageHandler extends SimulatedMessageHandler {
+
+    @Override
+    public Set<String> getSupportedTypes() {
+        return Set.of("payment");
+    }
+
+    @Override
+    public boolean handle(MessageDto messageDto) {
+        log.debug("Processing payment message: {}", messageDto.getContent());
+        
+        // Simulate payment processing logic
+        if (messageDto.getContent().contains("declined")) {
+            throw new RuntimeException("Payment declined");
+        }
+        
+        simulateProcessingDelay(300);
+        
+        log.debug("Payment processed successfully for ID: {}", messageDto.getId());
+        return true;
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return 3;
+    }
+
+    @Override
+    public Duration getPermitWaitTimeout() {
+        return Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.rabbitmqconsumer.handler;
+
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Base class for the demo handlers, which stand in for real work with a fixed delay.
+ * The delay can be switched off (app.handlers.simulate-delay) to measure dispatch overhead alone.
+ */
+@Slf4j
+public abstract class SimulatedMessageHandler implements MessageHandler {
+
+    @Setter
+    @Value("${app.handlers.simulate-delay:true}")
+    private boolean simulateDelay = true;
+
+    protected void simulateProcessingDelay(long millis) {
+        if (!simulateDelay) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Processing interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.rabbitmqconsumer.handler;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@Component
+@Slf4j
+public class UserMessageHandler extends SimulatedMessageHandler {
+
+    @Override
+    public Set<String> getSupportedTypes() {
+        return Set.of("user");
+    }
+
+    @Override
+    public boolean handle(MessageDto messageDto) {
+        log.debug("Processing user message: {}", messageDto.getContent());
+        
+        // Simulate user data processing
+        simulateProcessingDelay(200);
+        
+        log.debug("User message processed successfully for ID: {}", messageDto.getId());
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.rabbitmqconsumer.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wait-free latency recording from any thread (HdrHistogram Recorder, microsecond resolution,
+ * 3 significant digits) with a cumulative view for reports
+ */
+class LatencyHistogram {
+
+    private final Recorder recorder = new Recorder(3);
+    private final Histogram cumulative = new Histogram(3);
+    private Histogram interval;
+
+    void record(long nanos) {
+        recorder.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /**
+     * count, mean, min, p50, p90, p99, p99.9 and max in milliseconds
+     */
+    synchronized Map<String, Object> summary() {
+        interval = recorder.getIntervalHistogram(interval);
+        cumulative.add(interval);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", cumulative.getTotalCount());
+        if (cumulative.getTotalCount() > 0) {
+            summary.put("meanMs", cumulative.getMean() / 1000.0);
+            summary.put("minMs", cumulative.getMinValue() / 1000.0);
+            summary.put("p50Ms", cumulative.getValueAtPercentile(50) / 1000.0);
+            summary.put("p90Ms", cumulative.getValueAtPercentile(90) / 1000.0);
+            summary.put("p99Ms", cumulative.getValueAtPercentile(99) / 1000.0);
+            summary.put("p999Ms", cumulative.getValueAtPercentile(99.9) / 1000.0);
+            summary.put("maxMs", cumulative.getMaxValue() / 1000.0);
+        }
+        return summary;
+    }
+}
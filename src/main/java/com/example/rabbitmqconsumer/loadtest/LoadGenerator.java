@@ -0,0 +1,279 @@
+package com.example.rabbitmqconsumer.loadtest;
+
+import com.example.rabbitmqconsumer.dto.LoadTestRequest;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.service.MessagePublisherService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes generated messages at a target rate for a fixed duration and reports publish
+ * and end-to-end latency percentiles.
+ *
+ * The generator is open-loop: each message has a scheduled send time derived from the rate
+ * (fixed interval, or exponential inter-arrival times for poisson arrival) and is sent at that
+ * time whether or not earlier messages have been confirmed. Latencies are measured from the
+ * scheduled time rather than the actual send, so a generator thread that falls behind reports
+ * the delay instead of hiding it (coordinated omission). Publishes the publisher rejects (full
+ * confirm window, blocked broker) are counted as failed, not retried, so overload shows up
+ * as loss rather than as a silently lower offered rate.
+ * End-to-end latency is recorded by MessageConsumer through recordProcessed() when a listener
+ * in this application successfully processes a generated message.
+ */
+@Service
+@Slf4j
+public class LoadGenerator {
+
+    public static final String SOURCE = "loadtest";
+    public static final String ARRIVAL_CONSTANT = "constant";
+    public static final String ARRIVAL_POISSON = "poisson";
+
+    /**
+     * Room kept in a message body for the MessageDto fields around the payload (id, type, source, timestamp)
+     */
+    static final int ENVELOPE_BYTES = 4096;
+
+    private final MessagePublisherService messagePublisherService;
+    private final Executor executor;
+    private final AtomicReference<LoadTestRun> currentRun = new AtomicReference<>();
+
+    @Value("${app.loadtest.rate:100}")
+    private int defaultRate = 100;
+
+    @Value("${app.loadtest.duration-seconds:30}")
+    private int defaultDurationSeconds = 30;
+
+    @Value("${app.loadtest.payload-bytes:256}")
+    private int defaultPayloadBytes = 256;
+
+    @Value("${app.loadtest.max-rate:10000}")
+    private int maxRate = 10000;
+
+    @Value("${app.loadtest.max-duration-seconds:600}")
+    private int maxDurationSeconds = 600;
+
+    @Value("${app.loadtest.max-payload-bytes:1044480}")
+    private int maxPayloadBytes = 1044480;
+
+    @Value("${app.rabbitmq.validation.max-body-bytes:1048576}")
+    private int maxBodyBytes = 1048576;
+
+    @Value("${app.loadtest.drain-timeout-seconds:30}")
+    private int drainTimeoutSeconds = 30;
+
+    @Autowired
+    public LoadGenerator(MessagePublisherService messagePublisherService) {
+        this(messagePublisherService, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-generator");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    LoadGenerator(MessagePublisherService messagePublisherService, Executor executor) {
+        this.messagePublisherService = messagePublisherService;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a load test run in the background
+     *
+     * @throws IllegalArgumentException if the request is out of bounds
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public LoadTestRun start(LoadTestRequest request) {
+        LoadTestRequest resolved = resolve(request);
+        LoadTestRun running = currentRun.get();
+        if (running != null && isActive(running)) {
+            throw new IllegalStateException("Load test " + running.getId() + " is already running");
+        }
+        LoadTestRun run = new LoadTestRun(UUID.randomUUID().toString(), resolved);
+        if (!currentRun.compareAndSet(running, run)) {
+            throw new IllegalStateException("Another load test was started concurrently");
+        }
+        log.info("Starting load test {}: {} msg/s ({}) for {}s, {} byte payloads, type mix {}", run.getId(),
+                resolved.getRate(), resolved.getArrival(), resolved.getDurationSeconds(),
+                resolved.getPayloadBytes(), resolved.getTypeMix());
+        executor.execute(() -> run(run));
+        return run;
+    }
+
+    /**
+     * Gets the current or most recent load test run, or null if there has been none
+     */
+    public LoadTestRun getCurrentRun() {
+        return currentRun.get();
+    }
+
+    /**
+     * Asks the current run to stop publishing; messages already sent still drain
+     */
+    public LoadTestRun cancel() {
+        LoadTestRun run = currentRun.get();
+        if (run != null) {
+            run.requestCancel();
+        }
+        return run;
+    }
+
+    /**
+     * Records end-to-end latency for a successfully processed message. Cheap no-op for
+     * messages that were not generated by the current run.
+     */
+    public void recordProcessed(MessageDto messageDto) {
+        if (messageDto == null || !SOURCE.equals(messageDto.getSource())) {
+            return;
+        }
+        LoadTestRun run = currentRun.get();
+        if (run != null && isActive(run)) {
+            run.processed(messageDto.getId());
+        }
+    }
+
+    private void run(LoadTestRun run) {
+        LoadTestRequest request = run.getRequest();
+        List<String> types = new ArrayList<>(request.getTypeMix().keySet());
+        int[] cumulativeWeights = cumulativeWeights(request.getTypeMix(), types);
+        String content = "x".repeat(request.getPayloadBytes());
+        boolean poisson = ARRIVAL_POISSON.equals(request.getArrival());
+        double meanIntervalNanos = (double) TimeUnit.SECONDS.toNanos(1) / request.getRate();
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(request.getDurationSeconds());
+        double scheduled = start;
+        long sequence = 0;
+        try {
+            while (!run.isCancelRequested() && (long) scheduled < end) {
+                long scheduledNanos = (long) scheduled;
+                long wait = scheduledNanos - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                MessageDto messageDto = new MessageDto(run.getId() + "-" + sequence++, content,
+                        pickType(types, cumulativeWeights));
+                messageDto.setSource(SOURCE);
+                publish(run, messageDto, scheduledNanos);
+
+                scheduled += poisson
+                        ? -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos
+                        : meanIntervalNanos;
+            }
+
+            run.draining();
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+            while (run.getInFlight() > 0 && System.nanoTime() < drainDeadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            if (run.getInFlight() > 0) {
+                log.warn("Load test {}: {} messages not processed within {}s", run.getId(), run.getInFlight(),
+                        drainTimeoutSeconds);
+            }
+            run.finish(run.isCancelRequested() ? LoadTestRun.State.CANCELLED : LoadTestRun.State.COMPLETED, null);
+            log.info("Load test {} {}: published {}, failed {}, processed {}", run.getId(), run.getState(),
+                    run.getPublished().get(), run.getFailed().get(), run.getProcessed().get());
+        } catch (Exception e) {
+            log.error("Load test {} failed", run.getId(), e);
+            run.finish(LoadTestRun.State.FAILED, e.getMessage());
+        }
+    }
+
+    private void publish(LoadTestRun run, MessageDto messageDto, long scheduledNanos) {
+        run.scheduled(messageDto.getId(), scheduledNanos);
+        try {
+            messagePublisherService.publishMessageAsync(messageDto).whenComplete((confirm, ex) -> {
+                if (ex == null) {
+                    run.published(scheduledNanos);
+                } else {
+                    run.failed(messageDto.getId());
+                }
+            });
+        } catch (Exception e) {
+            // Rejected by the publisher: broker blocked or confirm window full
+            log.debug("Load test message {} not published: {}", messageDto.getId(), e.getMessage());
+            run.failed(messageDto.getId());
+        }
+    }
+
+    private LoadTestRequest resolve(LoadTestRequest request) {
+        LoadTestRequest resolved = new LoadTestRequest();
+        resolved.setRate(request.getRate() != null ? request.getRate() : defaultRate);
+        resolved.setDurationSeconds(request.getDurationSeconds() != null ? request.getDurationSeconds() : defaultDurationSeconds);
+        resolved.setPayloadBytes(request.getPayloadBytes() != null ? request.getPayloadBytes() : defaultPayloadBytes);
+        resolved.setArrival(request.getArrival() != null ? request.getArrival().toLowerCase() : ARRIVAL_CONSTANT);
+
+        Map<String, Integer> typeMix = new LinkedHashMap<>();
+        if (request.getTypeMix() == null || request.getTypeMix().isEmpty()) {
+            typeMix.put("generic", 1);
+        } else {
+            request.getTypeMix().forEach((type, weight) -> {
+                if (weight == null || weight < 0) {
+                    throw new IllegalArgumentException("Weight for type " + type + " must be zero or more");
+                }
+                if (weight > 0) {
+                    typeMix.put(type, weight);
+                }
+            });
+        }
+        resolved.setTypeMix(typeMix);
+
+        if (resolved.getRate() < 1 || resolved.getRate() > maxRate) {
+            throw new IllegalArgumentException("rate must be between 1 and " + maxRate);
+        }
+        if (resolved.getDurationSeconds() < 1 || resolved.getDurationSeconds() > maxDurationSeconds) {
+            throw new IllegalArgumentException("durationSeconds must be between 1 and " + maxDurationSeconds);
+        }
+        // Larger payloads would be rejected to the DLQ by MessagePreValidator, not measured
+        int payloadLimit = Math.min(maxPayloadBytes, maxBodyBytes - ENVELOPE_BYTES);
+        if (resolved.getPayloadBytes() < 1 || resolved.getPayloadBytes() > payloadLimit) {
+            throw new IllegalArgumentException("payloadBytes must be between 1 and " + payloadLimit);
+        }
+        if (!ARRIVAL_CONSTANT.equals(resolved.getArrival()) && !ARRIVAL_POISSON.equals(resolved.getArrival())) {
+            throw new IllegalArgumentException("arrival must be " + ARRIVAL_CONSTANT + " or " + ARRIVAL_POISSON);
+        }
+        if (typeMix.isEmpty()) {
+            throw new IllegalArgumentException("typeMix needs at least one type with a positive weight");
+        }
+        return resolved;
+    }
+
+    private static boolean isActive(LoadTestRun run) {
+        return run.getState() == LoadTestRun.State.RUNNING || run.getState() == LoadTestRun.State.DRAINING;
+    }
+
+    private static int[] cumulativeWeights(Map<String, Integer> typeMix, List<String> types) {
+        int[] cumulative = new int[types.size()];
+        int total = 0;
+        for (int i = 0; i < types.size(); i++) {
+            total += typeMix.get(types.get(i));
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    private static String pickType(List<String> types, int[] cumulativeWeights) {
+        if (types.size() == 1) {
+            return types.get(0);
+        }
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return types.get(i);
+            }
+        }
+        return types.get(types.size() - 1);
+    }
+}
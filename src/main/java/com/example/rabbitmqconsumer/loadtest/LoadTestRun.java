@@ -0,0 +1,116 @@
+package com.example.rabbitmqconsumer.loadtest;
+
+import com.example.rabbitmqconsumer.dto.LoadTestRequest;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and latency histograms of one load test run, updated by the generator, publisher
+ * confirm and listener threads and read by the REST API. Latencies are measured from each
+ * message's scheduled send time, so a stalled publisher shows up in the percentiles instead
+ * of silently lowering the send rate.
+ */
+@Getter
+public class LoadTestRun {
+
+    public enum State { RUNNING, DRAINING, COMPLETED, CANCELLED, FAILED }
+
+    private final String id;
+    private final LoadTestRequest request;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+
+    @Getter(AccessLevel.NONE)
+    private final LatencyHistogram publishLatency = new LatencyHistogram();
+
+    @Getter(AccessLevel.NONE)
+    private final LatencyHistogram endToEndLatency = new LatencyHistogram();
+
+    // Scheduled send time (System.nanoTime) of every message not yet processed, by message ID
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Long> inFlight = new ConcurrentHashMap<>();
+
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    LoadTestRun(String id, LoadTestRequest request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    void scheduled(String messageId, long scheduledNanos) {
+        scheduled.incrementAndGet();
+        inFlight.put(messageId, scheduledNanos);
+    }
+
+    void published(long scheduledNanos) {
+        published.incrementAndGet();
+        publishLatency.record(System.nanoTime() - scheduledNanos);
+    }
+
+    void failed(String messageId) {
+        failed.incrementAndGet();
+        inFlight.remove(messageId);
+    }
+
+    /**
+     * @return false if the message is not part of this run (or was already counted)
+     */
+    boolean processed(String messageId) {
+        Long scheduledNanos = inFlight.remove(messageId);
+        if (scheduledNanos == null) {
+            return false;
+        }
+        processed.incrementAndGet();
+        endToEndLatency.record(System.nanoTime() - scheduledNanos);
+        return true;
+    }
+
+    int getInFlight() {
+        return inFlight.size();
+    }
+
+    void draining() {
+        state = State.DRAINING;
+    }
+
+    void finish(State finalState, String failure) {
+        error = failure;
+        finishedAt = Instant.now();
+        inFlight.clear();
+        state = finalState;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    public long getPublishedPerSecond() {
+        long elapsedMillis = (finishedAt != null ? finishedAt : Instant.now()).toEpochMilli() - startedAt.toEpochMilli();
+        return elapsedMillis > 0 ? published.get() * 1000 / elapsedMillis : published.get();
+    }
+
+    /**
+     * Scheduled send time to broker confirm
+     */
+    public Map<String, Object> getPublishLatency() {
+        return publishLatency.summary();
+    }
+
+    /**
+     * Scheduled send time to successful processing by a listener in this application
+     */
+    public Map<String, Object> getEndToEndLatency() {
+        return endToEndLatency.summary();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.rabbitmqconsumer.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the async appender's counts: logging.async.events (lines queued for output,
+ * use rate() for lines per second), logging.async.dropped and logging.async.queue.depth.
+ */
+@Component
+public class AsyncLoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("logging.async.events", MeteredAsyncAppender.class, appender -> MeteredAsyncAppender.getQueuedCount())
+                .description("Log events queued by the async appender")
+                .register(registry);
+        FunctionCounter.builder("logging.async.dropped", MeteredAsyncAppender.class, appender -> MeteredAsyncAppender.getDroppedCount())
+                .description("Log events discarded because the async appender's queue was nearly full")
+                .register(registry);
+        Gauge.builder("logging.async.queue.depth", MeteredAsyncAppender::getQueueDepth)
+                .description("Log events waiting in the async appender's queue")
+                .register(registry);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.rabbitmqconsumer.logging;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-message log events for the consume path. Successes are sampled (1 in
+ * app.logging.hot-path.success-sample-rate), failures are always logged. Events carry
+ * key/value pairs (id, type, source, priority, ...) instead of the DTO's toString(),
+ * so content and metadata are never formatted.
+ *
+ * Counted as logging.hotpath.events{event,result=logged|sampled_out}.
+ */
+@Component
+@Slf4j
+public class HotPathLogger {
+
+    public static final String RESULT_LOGGED = "logged";
+    public static final String RESULT_SAMPLED_OUT = "sampled_out";
+
+    private final MeterRegistry registry;
+    private final int successSampleRate;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public HotPathLogger(MeterRegistry registry,
+                         @Value("${app.logging.hot-path.success-sample-rate:100}") int successSampleRate) {
+        this.registry = registry;
+        this.successSampleRate = Math.max(1, successSampleRate);
+    }
+
+    /**
+     * Logs a successfully handled message at INFO, for 1 in successSampleRate calls
+     */
+    public void success(String event, MessageDto messageDto, long elapsedNanos) {
+        if (successSampleRate > 1 && ThreadLocalRandom.current().nextInt(successSampleRate) != 0) {
+            counter(event, RESULT_SAMPLED_OUT).increment();
+            return;
+        }
+        counter(event, RESULT_LOGGED).increment();
+        log.atInfo()
+                .setMessage(event)
+                .addKeyValue("id", messageDto.getId())
+                .addKeyValue("type", messageDto.getType())
+                .addKeyValue("source", messageDto.getSource())
+                .addKeyValue("priority", messageDto.getPriority())
+                .addKeyValue("durationMicros", elapsedNanos / 1_000)
+                .addKeyValue("sampleRate", successSampleRate)
+                .log();
+    }
+
+    /**
+     * Logs a failed message at ERROR, always, with the exception's stack trace
+     */
+    public void failure(String event, MessageDto messageDto, Throwable error) {
+        counter(event, RESULT_LOGGED).increment();
+        log.atError()
+                .setMessage(event)
+                .addKeyValue("id", messageDto != null ? messageDto.getId() : null)
+                .addKeyValue("type", messageDto != null ? messageDto.getType() : null)
+                .addKeyValue("source", messageDto != null ? messageDto.getSource() : null)
+                .addKeyValue("retryCount", messageDto != null ? messageDto.getRetryCount() : null)
+                .addKeyValue("error", error.getMessage())
+                .setCause(error)
+                .log();
+    }
+
+    private Counter counter(String event, String result) {
+        return counters.computeIfAbsent(event + '|' + result, key -> Counter.builder("logging.hotpath.events")
+                .description("Hot-path log events, logged or dropped by sampling")
+                .tag("event", event)
+                .tag("result", result)
+                .register(registry));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.rabbitmqconsumer.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback AsyncAppender that counts the events it queues and the ones it discards once the
+ * queue is past its discarding threshold (INFO and below; WARN and ERROR wait for room).
+ * Logback creates it before the Spring context exists, so the counts are static and
+ * AsyncLoggingMetrics publishes them.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private static final LongAdder QUEUED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+
+    private static volatile MeteredAsyncAppender current;
+
+    // Set by preprocess(), which AsyncAppenderBase only calls for events it is about to queue
+    private final ThreadLocal<boolean[]> enqueued = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    @Override
+    public void start() {
+        super.start();
+        current = this;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        boolean[] flag = enqueued.get();
+        flag[0] = false;
+        super.append(event);
+        if (flag[0]) {
+            QUEUED.increment();
+        } else {
+            DROPPED.increment();
+        }
+    }
+
+    @Override
+    protected void preprocess(ILoggingEvent event) {
+        super.preprocess(event);
+        enqueued.get()[0] = true;
+    }
+
+    public static long getQueuedCount() {
+        return QUEUED.sum();
+    }
+
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * Events waiting to be written, or 0 if no MeteredAsyncAppender is configured
+     */
+    public static int getQueueDepth() {
+        MeteredAsyncAppender appender = current;
+        return appender != null && appender.isStarted() ? appender.getNumberOfElementsInQueue() : 0;
+    }
+}
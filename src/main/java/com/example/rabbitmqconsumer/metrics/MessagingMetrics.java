@@ -0,0 +1,127 @@
+package com.example.rabbitmqconsumer.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency timers for the consume, process and publish paths, exported through
+ * /actuator/metrics and /actuator/prometheus. Every timer publishes a percentile
+ * histogram (for server-side p99 per tag) and client-side p50/p95/p99.
+ *
+ * Tag values are bounded: types are the handler registry's canonical types, queues and
+ * modes come from configuration, outcomes are the constants below.
+ */
+@Component
+public class MessagingMetrics {
+
+    public static final String CONSUME_TIMER = "messages.consume";
+    public static final String PROCESS_TIMER = "messages.process";
+    public static final String PUBLISH_TIMER = "messages.publish";
+    public static final String DESERIALIZE_TIMER = "messages.deserialize";
+    public static final String QUEUE_WAIT_TIMER = "messages.queue.wait";
+    public static final String PUBLISH_REJECTED_COUNTER = "messages.publish.rejected";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+    public static final String OUTCOME_ERROR = "error";
+    public static final String OUTCOME_NACK = "nack";
+    public static final String OUTCOME_RETURNED = "returned";
+    public static final String OUTCOME_SATURATED = "saturated";
+
+    public static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public MessagingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Time spent in a listener call for one message, conversion excluded
+     */
+    public void recordConsume(String queue, String outcome, long nanos) {
+        String queueTag = queue != null ? queue : UNKNOWN;
+        timers.computeIfAbsent(CONSUME_TIMER + '|' + queueTag + '|' + outcome,
+                        key -> latencyTimer(CONSUME_TIMER)
+                                .description("Time to consume one message, from listener entry to ack decision")
+                                .tag("queue", queueTag)
+                                .tag("outcome", outcome)
+                                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time spent in the message handler, by canonical message type
+     */
+    public void recordProcess(String type, String outcome, long nanos) {
+        timers.computeIfAbsent(PROCESS_TIMER + '|' + type + '|' + outcome,
+                        key -> latencyTimer(PROCESS_TIMER)
+                                .description("Time to process one message in its handler")
+                                .tag("type", type)
+                                .tag("outcome", outcome)
+                                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time a message spent between publish and listener entry (broker queue and consumer
+     * prefetch), by canonical message type. Compare with the process timer to tell backlog
+     * from handler cost.
+     */
+    public void recordQueueWait(String type, long nanos) {
+        timers.computeIfAbsent(QUEUE_WAIT_TIMER + '|' + type,
+                        key -> latencyTimer(QUEUE_WAIT_TIMER)
+                                .description("Time from publish to listener entry")
+                                .tag("type", type)
+                                // A backlog can hold messages far longer than any handler call
+                                .maximumExpectedValue(Duration.ofHours(1))
+                                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time to publish: until the send returns (sync), until the broker confirm (async),
+     * or for a whole confirmed batch (batch)
+     */
+    public void recordPublish(String mode, String outcome, long nanos) {
+        timers.computeIfAbsent(PUBLISH_TIMER + '|' + mode + '|' + outcome,
+                        key -> latencyTimer(PUBLISH_TIMER)
+                                .description("Time to publish a message or a confirmed batch")
+                                .tag("mode", mode)
+                                .tag("outcome", outcome)
+                                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publishes refused before reaching the broker (see PublishRejectedException.Reason)
+     */
+    public void recordPublishRejected(String reason) {
+        counters.computeIfAbsent(PUBLISH_REJECTED_COUNTER + '|' + reason,
+                        key -> Counter.builder(PUBLISH_REJECTED_COUNTER)
+                                .description("Publishes rejected because of broker flow control or publisher limits")
+                                .tag("reason", reason)
+                                .register(registry))
+                .increment();
+    }
+
+    /**
+     * Timer settings shared by all messaging latency timers
+     */
+    public static Timer.Builder latencyTimer(String name) {
+        return Timer.builder(name)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .minimumExpectedValue(Duration.ofNanos(50_000))
+                .maximumExpectedValue(Duration.ofSeconds(30));
+    }
+}
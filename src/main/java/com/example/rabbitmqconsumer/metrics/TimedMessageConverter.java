@@ -0,0 +1,64 @@
+package com.example.rabbitmqconsumer.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageConverter decorator that times deserialization (fromMessage) separately from
+ * processing, as messages.deserialize{outcome}. Serialization is passed through untimed.
+ */
+public class TimedMessageConverter implements MessageConverter, MeterBinder {
+
+    private final MessageConverter delegate;
+
+    private volatile Timer successTimer;
+    private volatile Timer errorTimer;
+
+    public TimedMessageConverter(MessageConverter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        return delegate.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object converted = delegate.fromMessage(message);
+            success = true;
+            return converted;
+        } finally {
+            Timer timer = success ? successTimer : errorTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    public MessageConverter getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        successTimer = MessagingMetrics.latencyTimer(MessagingMetrics.DESERIALIZE_TIMER)
+                .description("Time to deserialize a message body")
+                .tag("outcome", MessagingMetrics.OUTCOME_SUCCESS)
+                .register(registry);
+        errorTimer = MessagingMetrics.latencyTimer(MessagingMetrics.DESERIALIZE_TIMER)
+                .description("Time to deserialize a message body")
+                .tag("outcome", MessagingMetrics.OUTCOME_ERROR)
+                .register(registry);
+    }
+}
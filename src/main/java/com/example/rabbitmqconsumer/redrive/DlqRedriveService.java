@@ -0,0 +1,319 @@
+package com.example.rabbitmqconsumer.redrive;
+
+import com.example.rabbitmqconsumer.compression.DecompressingPostProcessor;
+import com.example.rabbitmqconsumer.config.RetryProperties;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.dto.RedriveRequest;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.Return;
+import com.rabbitmq.client.ReturnListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays dead-lettered messages from the DLQ back to the main exchange.
+ *
+ * The DLQ is drained in batches with basicGet on one channel. Matching messages are
+ * republished to the main exchange with the routing key they had before they were
+ * dead-lettered; non-matching ones are republished to the tail of the DLQ. Republishes
+ * are mandatory: a message whose routing key no longer reaches a queue is returned by the
+ * broker, put back on the DLQ and counted as failed. Each batch is acked only after the
+ * broker has confirmed every republish in it, so a crash or failed confirm redelivers
+ * instead of losing messages. A run stops after scanning as many
+ * messages as the DLQ held when it started, so skipped messages are not scanned twice.
+ */
+@Service
+@Slf4j
+public class DlqRedriveService {
+
+    /**
+     * Header recording when a message was last redriven
+     */
+    public static final String REDRIVEN_AT_HEADER = "x-redriven-at";
+
+    private static final MessagePropertiesConverter PROPERTIES_CONVERTER = new DefaultMessagePropertiesConverter();
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MessageConverter messageConverter;
+    private final DecompressingPostProcessor decompressingPostProcessor;
+    private final Executor executor;
+    private final AtomicReference<RedriveJob> currentJob = new AtomicReference<>();
+
+    @Value("${app.rabbitmq.exchange.name}")
+    private String exchangeName;
+
+    @Value("${app.rabbitmq.routing-key}")
+    private String routingKey;
+
+    @Value("${app.rabbitmq.queue.name}")
+    private String queueName;
+
+    @Value("${app.rabbitmq.redrive.batch-size:500}")
+    private int defaultBatchSize;
+
+    @Value("${app.rabbitmq.redrive.rate:1000}")
+    private int defaultRate;
+
+    @Value("${app.rabbitmq.redrive.confirm-timeout:30000}")
+    private long confirmTimeout;
+
+    @Autowired
+    public DlqRedriveService(RabbitTemplate rabbitTemplate, MessageConverter messageConverter,
+            DecompressingPostProcessor decompressingPostProcessor) {
+        this(rabbitTemplate, messageConverter, decompressingPostProcessor, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dlq-redrive");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    DlqRedriveService(RabbitTemplate rabbitTemplate, MessageConverter messageConverter,
+            DecompressingPostProcessor decompressingPostProcessor, Executor executor) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.messageConverter = messageConverter;
+        this.decompressingPostProcessor = decompressingPostProcessor;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a redrive run in the background
+     *
+     * @throws IllegalStateException if a run is already in progress
+     */
+    public RedriveJob start(RedriveRequest request) {
+        RedriveJob running = currentJob.get();
+        if (running != null && running.getState() == RedriveJob.State.RUNNING) {
+            throw new IllegalStateException("Redrive " + running.getId() + " is already running");
+        }
+        long depth = rabbitTemplate.execute(channel -> (long) channel.queueDeclarePassive(deadLetterQueueName()).getMessageCount());
+        RedriveJob job = new RedriveJob(UUID.randomUUID().toString(), request, depth);
+        if (!currentJob.compareAndSet(running, job)) {
+            throw new IllegalStateException("Another redrive was started concurrently");
+        }
+        log.info("Starting DLQ redrive {} of up to {} messages from {}", job.getId(), depth, deadLetterQueueName());
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    /**
+     * Gets the current or most recent redrive run, or null if there has been none
+     */
+    public RedriveJob getCurrentJob() {
+        return currentJob.get();
+    }
+
+    /**
+     * Asks the current run to stop after its in-flight batch
+     */
+    public RedriveJob cancel() {
+        RedriveJob job = currentJob.get();
+        if (job != null) {
+            job.requestCancel();
+        }
+        return job;
+    }
+
+    private void run(RedriveJob job) {
+        RedriveRequest request = job.getRequest();
+        int rate = request.getRate() != null && request.getRate() > 0 ? request.getRate() : defaultRate;
+        int batchSize = Math.min(rate, request.getBatchSize() != null && request.getBatchSize() > 0
+                ? request.getBatchSize() : defaultBatchSize);
+        long maxMessages = request.getMaxMessages() != null ? request.getMaxMessages() : Long.MAX_VALUE;
+        long nanosPerMessage = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        try {
+            while (!job.isCancelRequested()
+                    && job.getScanned().get() < job.getInitialDepth()
+                    && job.getRedriven().get() < maxMessages) {
+                int limit = (int) Math.min(batchSize, job.getInitialDepth() - job.getScanned().get());
+                int republished = rabbitTemplate.execute(channel -> redriveBatch(channel, job, limit, maxMessages));
+                if (republished < 0) {
+                    break; // DLQ empty
+                }
+                // Pace to the configured rate
+                long due = start + job.getRedriven().get() * nanosPerMessage;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            job.finish(job.isCancelRequested() ? RedriveJob.State.CANCELLED : RedriveJob.State.COMPLETED, null);
+            log.info("DLQ redrive {} {}: scanned {}, redriven {}, skipped {}, failed {}", job.getId(), job.getState(),
+                    job.getScanned().get(), job.getRedriven().get(), job.getSkipped().get(), job.getFailed().get());
+        } catch (Exception e) {
+            log.error("DLQ redrive {} failed", job.getId(), e);
+            job.finish(RedriveJob.State.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Moves up to limit messages off the DLQ in one confirmed batch
+     *
+     * @return the number of messages sent back to the main exchange, or -1 if the DLQ was empty
+     */
+    private int redriveBatch(Channel channel, RedriveJob job, int limit, long maxMessages)
+            throws IOException, TimeoutException, InterruptedException {
+        channel.confirmSelect();
+        // The broker sends basic.return before the confirm, so every return is in by the time the confirms are
+        Queue<Return> returned = new ConcurrentLinkedQueue<>();
+        ReturnListener returnListener = channel.addReturnListener(returned::add);
+        try {
+            long lastDeliveryTag = -1;
+            int redriven = 0;
+            int skipped = 0;
+            for (int i = 0; i < limit && job.getRedriven().get() + redriven < maxMessages; i++) {
+                GetResponse response = channel.basicGet(deadLetterQueueName(), false);
+                if (response == null) {
+                    break;
+                }
+                lastDeliveryTag = response.getEnvelope().getDeliveryTag();
+                if (matches(job.getRequest(), response)) {
+                    channel.basicPublish(exchangeName, originalRoutingKey(response), true,
+                            redriveProperties(response.getProps()), response.getBody());
+                    redriven++;
+                } else {
+                    channel.basicPublish("", deadLetterQueueName(), false, response.getProps(), response.getBody());
+                    skipped++;
+                }
+            }
+            if (lastDeliveryTag < 0) {
+                return -1;
+            }
+            int failed;
+            try {
+                channel.waitForConfirmsOrDie(confirmTimeout);
+                failed = returned.size();
+                if (failed > 0) {
+                    requeueUnroutable(channel, returned);
+                    channel.waitForConfirmsOrDie(confirmTimeout);
+                }
+            } catch (IOException | TimeoutException e) {
+                // Nothing was acked: put the whole batch back so no message is lost
+                channel.basicNack(lastDeliveryTag, true, true);
+                throw e;
+            }
+            channel.basicAck(lastDeliveryTag, true);
+            job.getScanned().addAndGet(redriven + skipped);
+            job.getRedriven().addAndGet(redriven - failed);
+            job.getSkipped().addAndGet(skipped);
+            job.getFailed().addAndGet(failed);
+            return redriven - failed;
+        } finally {
+            channel.removeReturnListener(returnListener);
+        }
+    }
+
+    /**
+     * Puts messages the main exchange could not route back on the tail of the DLQ, as they were republished
+     */
+    private void requeueUnroutable(Channel channel, Queue<Return> returned) throws IOException {
+        for (Return unroutable : returned) {
+            log.warn("Redriven message {} is unroutable ({} {} via {}), putting it back on {}",
+                    unroutable.getProperties().getMessageId(), unroutable.getReplyCode(), unroutable.getReplyText(),
+                    unroutable.getRoutingKey(), deadLetterQueueName());
+            channel.basicPublish("", deadLetterQueueName(), false, unroutable.getProperties(), unroutable.getBody());
+        }
+    }
+
+    private boolean matches(RedriveRequest request, GetResponse response) {
+        Map<String, Object> death = firstDeath(response.getProps());
+        if (request.getReasons() != null && !request.getReasons().isEmpty()) {
+            String reason = death != null ? String.valueOf(death.get("reason")) : null;
+            if (request.getReasons().stream().noneMatch(r -> r.equalsIgnoreCase(reason))) {
+                return false;
+            }
+        }
+        if (request.getFrom() != null || request.getTo() != null) {
+            Instant deadLetteredAt = death != null && death.get("time") instanceof Date time ? time.toInstant() : null;
+            if (deadLetteredAt == null
+                    || (request.getFrom() != null && deadLetteredAt.isBefore(request.getFrom()))
+                    || (request.getTo() != null && !deadLetteredAt.isBefore(request.getTo()))) {
+                return false;
+            }
+        }
+        if (request.getTypes() != null && !request.getTypes().isEmpty()) {
+            String type = messageType(response);
+            return type != null && request.getTypes().stream().anyMatch(t -> t.equalsIgnoreCase(type));
+        }
+        return true;
+    }
+
+    /**
+     * The AMQP type property, or else the type field of the body, decoded the way the listeners
+     * decode it (decompression, then the content-type's converter)
+     */
+    private String messageType(GetResponse response) {
+        if (response.getProps().getType() != null) {
+            return response.getProps().getType();
+        }
+        Message message = new Message(response.getBody(), PROPERTIES_CONVERTER.toMessageProperties(
+                response.getProps(), response.getEnvelope(), StandardCharsets.UTF_8.name()));
+        try {
+            message = decompressingPostProcessor.postProcessMessage(message);
+            message.getMessageProperties().setInferredArgumentType(MessageDto.class);
+            return messageConverter.fromMessage(message) instanceof MessageDto messageDto ? messageDto.getType() : null;
+        } catch (AmqpException e) {
+            log.warn("Could not read the type of dead letter {}, treating it as not matching: {}",
+                    response.getProps().getMessageId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String originalRoutingKey(GetResponse response) {
+        Map<String, Object> death = firstDeath(response.getProps());
+        if (death != null && death.get("routing-keys") instanceof List<?> keys && !keys.isEmpty()) {
+            return String.valueOf(keys.get(0));
+        }
+        return routingKey;
+    }
+
+    /**
+     * Clears the delayed-retry count so a redriven message gets a full set of retries again
+     */
+    private AMQP.BasicProperties redriveProperties(AMQP.BasicProperties properties) {
+        Map<String, Object> headers = properties.getHeaders() != null ? new HashMap<>(properties.getHeaders()) : new HashMap<>();
+        headers.remove(RetryProperties.RETRY_COUNT_HEADER);
+        headers.put(REDRIVEN_AT_HEADER, Instant.now().toString());
+        return properties.builder().headers(headers).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> firstDeath(AMQP.BasicProperties properties) {
+        if (properties.getHeaders() != null && properties.getHeaders().get("x-death") instanceof List<?> deaths
+                && !deaths.isEmpty() && deaths.get(0) instanceof Map<?, ?> death) {
+            return (Map<String, Object>) death;
+        }
+        return null;
+    }
+
+    private String deadLetterQueueName() {
+        return "dlq." + queueName;
+    }
+}
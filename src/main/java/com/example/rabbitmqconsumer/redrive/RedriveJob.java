@@ -0,0 +1,58 @@
+package com.example.rabbitmqconsumer.redrive;
+
+import com.example.rabbitmqconsumer.dto.RedriveRequest;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one DLQ redrive run, updated by the redrive thread and read by the REST API
+ */
+@Getter
+public class RedriveJob {
+
+    public enum State { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    private final String id;
+    private final RedriveRequest request;
+    private final long initialDepth;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong redriven = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    /**
+     * Matching messages the broker could not route from the main exchange; put back on the DLQ
+     */
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile State state = State.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    RedriveJob(String id, RedriveRequest request, long initialDepth) {
+        this.id = id;
+        this.request = request;
+        this.initialDepth = initialDepth;
+    }
+
+    void finish(State finalState, String failure) {
+        error = failure;
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    public long getMessagesPerSecond() {
+        long elapsedMillis = (finishedAt != null ? finishedAt : Instant.now()).toEpochMilli() - startedAt.toEpochMilli();
+        return elapsedMillis > 0 ? redriven.get() * 1000 / elapsedMillis : redriven.get();
+    }
+
+    public double getProgress() {
+        return initialDepth > 0 ? Math.min(1.0, (double) scanned.get() / initialDepth) : 1.0;
+    }
+}
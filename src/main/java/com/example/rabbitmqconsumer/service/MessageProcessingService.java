@@ -1,117 +1,186 @@
 package com.example.rabbitmqconsumer.service;
 
+import com.example.rabbitmqconsumer.dedup.DuplicateMessageFilter;
 import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.dto.ProcessedMessagePage;
+import com.example.rabbitmqconsumer.handler.HandlerBinding;
+import com.example.rabbitmqconsumer.handler.HandlerSaturatedException;
+import com.example.rabbitmqconsumer.handler.MessageHandlerRegistry;
+import com.example.rabbitmqconsumer.logging.HotPathLogger;
+import com.example.rabbitmqconsumer.metrics.MessagingMetrics;
+import com.example.rabbitmqconsumer.stats.MessageStats;
+import com.example.rabbitmqconsumer.stats.StatsSnapshot;
+import com.example.rabbitmqconsumer.store.ProcessedMessageStore;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class MessageProcessingService {
 
-    private final Map<String, MessageDto> processedMessages = new ConcurrentHashMap<>();
-    private final AtomicLong processedCount = new AtomicLong(0);
-    private final AtomicLong failedCount = new AtomicLong(0);
-    private final AtomicLong deadLetterCount = new AtomicLong(0);
-
+    private final ProcessedMessageStore processedMessages;
+    private final DuplicateMessageFilter duplicateMessageFilter;
+    private final MessageHandlerRegistry handlerRegistry;
+    private final MessagingMetrics messagingMetrics;
+    private final MessageStats messageStats;
+    private final HotPathLogger hotPathLogger;
+
+    /**
+     * Processes one message with its type's handler
+     *
+     * @return true on success, false if the handler failed
+     * @throws HandlerSaturatedException if the handler had no free concurrency slot; the message
+     *         was not processed and should be requeued rather than counted as failed
+     */
     public boolean processMessage(MessageDto messageDto, Map<String, Object> headers) {
-        log.info("Processing message of type '{}' with ID: {}", messageDto.getType(), messageDto.getId());
+        log.debug("Processing message of type '{}' with ID: {}", messageDto.getType(), messageDto.getId());
+
+        // Redelivery of a message that already completed: acknowledge without redoing the work
+        if (duplicateMessageFilter.isDuplicate(messageDto.getId())) {
+            log.debug("Skipping duplicate delivery of message with ID: {}", messageDto.getId());
+            return true;
+        }
         
+        long startNanos = System.nanoTime();
+        String metricType = MessagingMetrics.UNKNOWN;
+        String outcome = MessagingMetrics.OUTCOME_ERROR;
         try {
-            // Simulate processing based on message type
-            switch (messageDto.getType().toLowerCase()) {
-                case "order":
-                    return processOrderMessage(messageDto);
-                case "payment":
-                    return processPaymentMessage(messageDto);
-                case "notification":
-                    return processNotificationMessage(messageDto);
-                case "user":
-                    return processUserMessage(messageDto);
-                default:
-                    return processGenericMessage(messageDto);
+            HandlerBinding binding = handlerRegistry.resolve(messageDto.getType());
+            metricType = binding.getType();
+            boolean processed = binding.handle(messageDto);
+            if (processed) {
+                outcome = MessagingMetrics.OUTCOME_SUCCESS;
+                recordSuccess(messageDto);
+            } else {
+                outcome = MessagingMetrics.OUTCOME_FAILURE;
+                messageStats.recordFailed(messageDto);
             }
+            return processed;
+        } catch (HandlerSaturatedException e) {
+            outcome = MessagingMetrics.OUTCOME_SATURATED;
+            throw e;
         } catch (Exception e) {
-            log.error("Error processing message: {}", e.getMessage(), e);
-            failedCount.incrementAndGet();
+            hotPathLogger.failure("message.process.failed", messageDto, e);
+            messageStats.recordFailed(messageDto);
             return false;
+        } finally {
+            messagingMetrics.recordProcess(metricType, outcome, System.nanoTime() - startNanos);
         }
     }
 
-    private boolean processOrderMessage(MessageDto messageDto) {
-        log.info("Processing order message: {}", messageDto.getContent());
-        
-        // Simulate order processing logic
-        if (messageDto.getContent().contains("invalid")) {
-            throw new RuntimeException("Invalid order data");
+    /**
+     * Processes a batch of messages. Every element succeeds or fails on its own;
+     * the returned list holds one result per element, in the same order.
+     * Messages whose handler supports batching are handed to it together.
+     * A null result means the element's handler was saturated (see processMessage):
+     * it was not processed and should be requeued.
+     */
+    public List<Boolean> processBatch(List<MessageDto> messages) {
+        log.debug("Processing batch of {} messages", messages.size());
+
+        Boolean[] results = new Boolean[messages.size()];
+        Map<HandlerBinding, List<Integer>> batchesByHandler = new LinkedHashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            MessageDto messageDto = messages.get(i);
+            HandlerBinding binding = resolveQuietly(messageDto);
+            if (binding == null || !binding.supportsBatch()) {
+                try {
+                    results[i] = processMessage(messageDto, Collections.emptyMap());
+                } catch (HandlerSaturatedException e) {
+                    results[i] = null;
+                }
+            } else if (duplicateMessageFilter.isDuplicate(messageDto.getId())) {
+                log.debug("Skipping duplicate delivery of message with ID: {}", messageDto.getId());
+                results[i] = true;
+            } else {
+                batchesByHandler.computeIfAbsent(binding, b -> new ArrayList<>()).add(i);
+            }
         }
-        
-        // Simulate some processing time
-        simulateProcessingDelay(500);
-        
-        processedMessages.put(messageDto.getId(), messageDto);
-        processedCount.incrementAndGet();
-        log.info("Order processed successfully for ID: {}", messageDto.getId());
-        return true;
+
+        batchesByHandler.forEach((binding, indexes) -> {
+            List<MessageDto> batch = indexes.stream().map(messages::get).toList();
+            List<Boolean> batchResults;
+            String batchOutcome = null;
+            long startNanos = System.nanoTime();
+            try {
+                batchResults = binding.handleBatch(batch);
+            } catch (HandlerSaturatedException e) {
+                log.debug("Handler for '{}' saturated, requeueing batch of {} messages", binding.getType(), batch.size());
+                long nanosPerMessage = (System.nanoTime() - startNanos) / batch.size();
+                for (int index : indexes) {
+                    messagingMetrics.recordProcess(binding.getType(), MessagingMetrics.OUTCOME_SATURATED, nanosPerMessage);
+                    results[index] = null;
+                }
+                return;
+            } catch (Exception e) {
+                log.error("Error processing batch of {} '{}' messages: {}", batch.size(), binding.getType(), e.getMessage(), e);
+                batchResults = Collections.nCopies(batch.size(), false);
+                batchOutcome = MessagingMetrics.OUTCOME_ERROR;
+            }
+            // Batch handlers are timed per message as the batch's average
+            long nanosPerMessage = (System.nanoTime() - startNanos) / batch.size();
+            for (int j = 0; j < batch.size(); j++) {
+                boolean processed = Boolean.TRUE.equals(batchResults.get(j));
+                String outcome = batchOutcome != null ? batchOutcome
+                        : processed ? MessagingMetrics.OUTCOME_SUCCESS : MessagingMetrics.OUTCOME_FAILURE;
+                messagingMetrics.recordProcess(binding.getType(), outcome, nanosPerMessage);
+                if (processed) {
+                    recordSuccess(batch.get(j));
+                } else {
+                    messageStats.recordFailed(batch.get(j));
+                }
+                results[indexes.get(j)] = processed;
+            }
+        });
+        return Arrays.asList(results);
     }
 
-    private boolean processPaymentMessage(MessageDto messageDto) {
-        log.info("Processing payment message: {}", messageDto.getContent());
-        
-        // Simulate payment processing logic
-        if (messageDto.getContent().contains("declined")) {
-            throw new RuntimeException("Payment declined");
-        }
-        
-        simulateProcessingDelay(300);
-        
-        processedMessages.put(messageDto.getId(), messageDto);
-        processedCount.incrementAndGet();
-        log.info("Payment processed successfully for ID: {}", messageDto.getId());
-        return true;
+    /**
+     * Records how long a message waited between publish and listener entry, under its canonical type
+     */
+    public void recordQueueWait(MessageDto messageDto, long nanos) {
+        HandlerBinding binding = resolveQuietly(messageDto);
+        messagingMetrics.recordQueueWait(binding != null ? binding.getType() : MessagingMetrics.UNKNOWN, nanos);
     }
 
-    private boolean processNotificationMessage(MessageDto messageDto) {
-        log.info("Processing notification message: {}", messageDto.getContent());
-        
-        // Simulate notification sending
-        simulateProcessingDelay(100);
-        
-        processedMessages.put(messageDto.getId(), messageDto);
-        processedCount.incrementAndGet();
-        log.info("Notification sent successfully for ID: {}", messageDto.getId());
-        return true;
+    private HandlerBinding resolveQuietly(MessageDto messageDto) {
+        try {
+            return handlerRegistry.resolve(messageDto.getType());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
-    private boolean processUserMessage(MessageDto messageDto) {
-        log.info("Processing user message: {}", messageDto.getContent());
-        
-        // Simulate user data processing
-        simulateProcessingDelay(200);
-        
-        processedMessages.put(messageDto.getId(), messageDto);
-        processedCount.incrementAndGet();
-        log.info("User message processed successfully for ID: {}", messageDto.getId());
-        return true;
+    private void recordSuccess(MessageDto messageDto) {
+        processedMessages.put(messageDto);
+        messageStats.recordProcessed(messageDto);
+        duplicateMessageFilter.markProcessed(messageDto.getId());
     }
 
-    private boolean processGenericMessage(MessageDto messageDto) {
-        log.info("Processing generic message: {}", messageDto.getContent());
-        
-        simulateProcessingDelay(150);
-        
-        processedMessages.put(messageDto.getId(), messageDto);
-        processedCount.incrementAndGet();
-        log.info("Generic message processed successfully for ID: {}", messageDto.getId());
-        return true;
+    /**
+     * Counts a message the listeners rejected to the DLQ. Dead letters are counted when they are
+     * rejected, not when the dead-letter listener consumes them: that listener is off by default
+     * so the DLQ can be redriven.
+     *
+     * @param messageDto the rejected message, or null if it was rejected before its body was converted
+     */
+    public void recordDeadLettered(MessageDto messageDto) {
+        messageStats.recordDeadLetter(messageDto != null ? messageDto : new MessageDto());
     }
 
     public void handleDeadLetterMessage(MessageDto messageDto, Map<String, Object> headers) {
+        // Already counted by recordDeadLettered() when it was rejected
         log.error("Handling dead letter message with ID: {}", messageDto.getId());
-        deadLetterCount.incrementAndGet();
         
         // Here you could implement logic to:
         // 1. Save to database for manual review
@@ -123,37 +192,41 @@ public class MessageProcessingService {
                  messageDto.getId(), messageDto.getType(), messageDto.getContent(), messageDto.getRetryCount());
     }
 
-    private void simulateProcessingDelay(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Processing interrupted", e);
-        }
-    }
-
-    // Metrics methods
+    // Metrics methods; these read running totals, use getStats() for several counts that must agree
     public long getProcessedCount() {
-        return processedCount.get();
+        return messageStats.totals().processed();
     }
 
     public long getFailedCount() {
-        return failedCount.get();
+        return messageStats.totals().failed();
     }
 
     public long getDeadLetterCount() {
-        return deadLetterCount.get();
+        return messageStats.totals().deadLetter();
+    }
+
+    /**
+     * Consistent snapshot of the counters with their type/source/priority breakdown
+     */
+    public StatsSnapshot getStats() {
+        return messageStats.snapshot();
     }
 
     public Map<String, MessageDto> getProcessedMessages() {
-        return new ConcurrentHashMap<>(processedMessages);
+        return processedMessages.snapshot();
+    }
+
+    public ProcessedMessagePage getProcessedMessagesPage(long cursor, int limit) {
+        return processedMessages.page(cursor, limit);
+    }
+
+    public void forEachProcessedMessage(long cursor, BiConsumer<Long, MessageDto> action) {
+        processedMessages.forEachAfter(cursor, action);
     }
 
     public void clearProcessedMessages() {
         processedMessages.clear();
-        processedCount.set(0);
-        failedCount.set(0);
-        deadLetterCount.set(0);
+        messageStats.reset();
         log.info("Cleared all processed message records");
     }
 }
\ No newline at end of file
@@ -1,18 +1,49 @@
 package com.example.rabbitmqconsumer.service;
 
+import com.example.rabbitmqconsumer.config.TypedQueueProperties;
+import com.example.rabbitmqconsumer.converter.MessageDtoEncoder;
+import com.example.rabbitmqconsumer.dto.BulkPublishResult;
 import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.metrics.MessagingMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionBlockedEvent;
+import org.springframework.amqp.rabbit.connection.ConnectionUnblockedEvent;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MessagePublisherService {
 
+    /**
+     * Header holding the publish time in microseconds since the epoch. The AMQP timestamp
+     * property and MessageDto.timestamp only have second resolution.
+     */
+    public static final String PUBLISHED_AT_HEADER = "x-published-at";
+
     private final RabbitTemplate rabbitTemplate;
+    private final TypedQueueProperties typedQueueProperties;
+    private final MessagingMetrics messagingMetrics;
+    private final MessageDtoEncoder messageDtoEncoder;
 
     @Value("${app.rabbitmq.exchange.name}")
     private String exchangeName;
@@ -23,35 +54,96 @@ public class MessagePublisherService {
     @Value("${app.rabbitmq.queue.name}")
     private String queueName;
 
+    @Value("${app.rabbitmq.publisher.confirm-window:1000}")
+    private int confirmWindow = 1000;
+
+    @Value("${app.rabbitmq.publisher.confirm-timeout:30000}")
+    private long confirmTimeout = 30000;
+
+    @Value("${app.rabbitmq.publisher.max-in-flight:64}")
+    private int maxInFlight = 64;
+
+    @Value("${app.rabbitmq.publisher.retry-after-seconds:5}")
+    private int retryAfterSeconds = 5;
+
+    // Bounds the number of published-but-unconfirmed messages
+    private Semaphore outstandingConfirms;
+
+    // Bounds the number of threads inside a blocking publish call
+    private Semaphore inFlightPublishes;
+
+    // Connections the broker has blocked (connection.blocked: memory or disk alarm)
+    private final Set<Connection> blockedConnections = ConcurrentHashMap.newKeySet();
+    private volatile String blockedReason;
+
+    @PostConstruct
+    void initPublishLimits() {
+        outstandingConfirms = new Semaphore(confirmWindow);
+        inFlightPublishes = new Semaphore(maxInFlight);
+    }
+
+    @EventListener
+    public void onConnectionBlocked(ConnectionBlockedEvent event) {
+        blockedReason = event.getReason();
+        blockedConnections.add(event.getConnection());
+        log.warn("Broker blocked publishing on {}: {}", event.getConnection(), event.getReason());
+    }
+
+    @EventListener
+    public void onConnectionUnblocked(ConnectionUnblockedEvent event) {
+        blockedConnections.remove(event.getConnection());
+        log.info("Broker unblocked publishing on {}", event.getConnection());
+    }
+
+    /**
+     * Whether the broker is currently blocking publishers. A connection that closed while
+     * blocked never sends connection.unblocked, so closed connections are not counted.
+     */
+    public boolean isBrokerBlocked() {
+        if (blockedConnections.isEmpty()) {
+            return false;
+        }
+        blockedConnections.removeIf(connection -> !connection.isOpen());
+        return !blockedConnections.isEmpty();
+    }
+
     /*
      * Current Flow:
         MessagePublisherService.publishMessage() → sends to exchange (message.exchange)
-        Uses routing key (message.routing.key)
-        RabbitMQ routes the message to the queue (message.queue) 
-        based on the binding configuration in RabbitMqConfig.java
+        Uses the message type as routing key when that type has its own queue
+        (message.queue.<type>), otherwise the default routing key (message.routing.key)
+        RabbitMQ routes the message to the queue based on the bindings in RabbitMqConfig.java
     */
     public void publishMessage(MessageDto messageDto) {
+        String messageRoutingKey = routingKeyFor(messageDto);
+        acquirePublishSlot(messageDto);
+        long start = System.nanoTime();
         try {
-            log.info("Publishing message with ID: {} to exchange: {} with routing key: {} (will route to queue: {})", 
-                     messageDto.getId(), exchangeName, routingKey, queueName);
+            log.debug("Publishing message with ID: {} to exchange: {} with routing key: {}", 
+                     messageDto.getId(), exchangeName, messageRoutingKey);
             
-            rabbitTemplate.convertAndSend(exchangeName, routingKey, messageDto);
+            rabbitTemplate.send(exchangeName, messageRoutingKey, encode(messageDto));
+            messagingMetrics.recordPublish("sync", MessagingMetrics.OUTCOME_SUCCESS, System.nanoTime() - start);
             
-            log.info("Message published successfully: {} -> Exchange: {} -> Queue: {}", 
-                     messageDto.getId(), exchangeName, queueName);
+            log.debug("Message published successfully: {} -> Exchange: {} -> Routing key: {}", 
+                     messageDto.getId(), exchangeName, messageRoutingKey);
         } catch (Exception e) {
-            log.error("Failed to publish message: {} to exchange: {} -> queue: {}", 
-                     messageDto.getId(), exchangeName, queueName, e);
+            messagingMetrics.recordPublish("sync", MessagingMetrics.OUTCOME_ERROR, System.nanoTime() - start);
+            log.error("Failed to publish message: {} to exchange: {} -> routing key: {}", 
+                     messageDto.getId(), exchangeName, messageRoutingKey, e);
             throw new RuntimeException("Failed to publish message", e);
+        } finally {
+            inFlightPublishes.release();
         }
     }
 
     public void publishMessage(MessageDto messageDto, String customRoutingKey) {
+        acquirePublishSlot(messageDto);
         try {
             log.info("Publishing message with ID: {} to exchange: {} with custom routing key: {} (target queue depends on bindings)", 
                      messageDto.getId(), exchangeName, customRoutingKey);
             
-            rabbitTemplate.convertAndSend(exchangeName, customRoutingKey, messageDto);
+            rabbitTemplate.send(exchangeName, customRoutingKey, encode(messageDto));
             
             log.info("Message published successfully with custom routing key: {} -> Exchange: {}", 
                      messageDto.getId(), exchangeName);
@@ -59,6 +151,145 @@ public class MessagePublisherService {
             log.error("Failed to publish message with custom routing key: {} to exchange: {}", 
                      messageDto.getId(), exchangeName, e);
             throw new RuntimeException("Failed to publish message", e);
+        } finally {
+            inFlightPublishes.release();
+        }
+    }
+
+    /**
+     * Publishes a message with publisher confirms without waiting for the broker ack.
+     * The returned future completes with the message's CorrelationData once the broker
+     * confirms it, or exceptionally if the broker nacks it, returns it as unroutable
+     * or does not confirm it within the confirm timeout.
+     * At most confirm-window messages can be awaiting a confirm at any time; beyond that
+     * the publish is rejected immediately rather than blocking the caller.
+     *
+     * @throws PublishRejectedException if the broker is blocking publishers or the confirm window is full
+     */
+    public CompletableFuture<CorrelationData> publishMessageAsync(MessageDto messageDto) {
+        if (isBrokerBlocked()) {
+            throw reject(PublishRejectedException.Reason.BROKER_BLOCKED,
+                    "Broker is blocking publishers: " + blockedReason);
+        }
+        acquireConfirmSlot(messageDto);
+
+        long start = System.nanoTime();
+        CorrelationData correlationData = new CorrelationData(messageDto.getId());
+        try {
+            log.debug("Publishing message with ID: {} to exchange: {} awaiting confirm", messageDto.getId(), exchangeName);
+            rabbitTemplate.send(exchangeName, routingKeyFor(messageDto), encode(messageDto), correlationData);
+        } catch (Exception e) {
+            outstandingConfirms.release();
+            messagingMetrics.recordPublish("async", MessagingMetrics.OUTCOME_ERROR, System.nanoTime() - start);
+            log.error("Failed to publish message: {} to exchange: {}", messageDto.getId(), exchangeName, e);
+            return CompletableFuture.failedFuture(new AmqpException("Failed to publish message", e));
+        }
+
+        return correlationData.getFuture()
+                .orTimeout(confirmTimeout, TimeUnit.MILLISECONDS)
+                .whenComplete((confirm, ex) -> {
+                    outstandingConfirms.release();
+                    messagingMetrics.recordPublish("async", confirmOutcome(confirm, ex, correlationData),
+                            System.nanoTime() - start);
+                })
+                .thenApply(confirm -> {
+                    if (!confirm.isAck()) {
+                        log.error("Message {} was nacked by the broker: {}", messageDto.getId(), confirm.getReason());
+                        throw new AmqpException("Message nacked by broker: " + confirm.getReason());
+                    }
+                    ReturnedMessage returned = correlationData.getReturned();
+                    if (returned != null) {
+                        log.error("Message {} was returned as unroutable: {} {}",
+                                messageDto.getId(), returned.getReplyCode(), returned.getReplyText());
+                        throw new AmqpException("Message returned by broker: " + returned.getReplyText());
+                    }
+                    log.debug("Message {} confirmed by the broker", messageDto.getId());
+                    return correlationData;
+                });
+    }
+
+    /**
+     * Publishes a whole batch on one dedicated channel and waits once, at the end,
+     * for the broker to confirm all of it. Much cheaper than calling publishMessage()
+     * per message: no channel checkout and no logging per message, and a single
+     * confirm round trip per batch. Bodies are encoded by MessageDtoEncoder.
+     */
+    public BulkPublishResult publishBatch(List<MessageDto> messages) {
+        acquirePublishSlot(null);
+        long start = System.nanoTime();
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (MessageDto messageDto : messages) {
+                    operations.send(exchangeName, routingKeyFor(messageDto), encode(messageDto));
+                }
+                operations.waitForConfirmsOrDie(confirmTimeout);
+                return null;
+            });
+        } catch (Exception e) {
+            messagingMetrics.recordPublish("batch", MessagingMetrics.OUTCOME_ERROR, System.nanoTime() - start);
+            log.error("Failed to publish batch of {} messages to exchange: {}", messages.size(), exchangeName, e);
+            throw new RuntimeException("Failed to publish message batch", e);
+        } finally {
+            inFlightPublishes.release();
+        }
+
+        BulkPublishResult result = new BulkPublishResult(messages.size(), System.nanoTime() - start);
+        messagingMetrics.recordPublish("batch", MessagingMetrics.OUTCOME_SUCCESS, result.getElapsedNanos());
+        log.debug("Published and confirmed batch of {} messages to exchange: {} in {} ms",
+                messages.size(), exchangeName, result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * Gets the number of published messages still waiting for a broker confirm
+     */
+    public int getOutstandingConfirms() {
+        return confirmWindow - outstandingConfirms.availablePermits();
+    }
+
+    private String confirmOutcome(CorrelationData.Confirm confirm, Throwable ex, CorrelationData correlationData) {
+        if (ex != null) {
+            return MessagingMetrics.OUTCOME_ERROR;
+        }
+        if (!confirm.isAck()) {
+            return MessagingMetrics.OUTCOME_NACK;
+        }
+        return correlationData.getReturned() != null ? MessagingMetrics.OUTCOME_RETURNED : MessagingMetrics.OUTCOME_SUCCESS;
+    }
+
+    /**
+     * Admission check for the blocking publish paths. A publish to a blocked broker hangs in
+     * the socket write until the alarm clears, so calls are refused while the broker is blocked
+     * or slow to confirm, and at most max-in-flight threads can be inside a publish at once:
+     * if the broker blocks mid-publish only those threads are stuck, the rest fail fast.
+     * Callers must release inFlightPublishes once the publish returns.
+     */
+    private void acquirePublishSlot(MessageDto messageDto) {
+        if (isBrokerBlocked()) {
+            throw reject(PublishRejectedException.Reason.BROKER_BLOCKED,
+                    "Broker is blocking publishers: " + blockedReason);
+        }
+        if (outstandingConfirms.availablePermits() == 0) {
+            throw reject(PublishRejectedException.Reason.CONFIRM_WINDOW_FULL,
+                    confirmWindow + " published messages are still awaiting a broker confirm");
+        }
+        if (!inFlightPublishes.tryAcquire()) {
+            throw reject(PublishRejectedException.Reason.IN_FLIGHT_LIMIT,
+                    maxInFlight + " publishes already in progress"
+                            + (messageDto != null ? ", rejecting message " + messageDto.getId() : ""));
+        }
+    }
+
+    private PublishRejectedException reject(PublishRejectedException.Reason reason, String message) {
+        messagingMetrics.recordPublishRejected(reason.name().toLowerCase());
+        log.warn("Publish rejected ({}): {}", reason, message);
+        return new PublishRejectedException(reason, Duration.ofSeconds(retryAfterSeconds), message);
+    }
+
+    private void acquireConfirmSlot(MessageDto messageDto) {
+        if (!outstandingConfirms.tryAcquire()) {
+            throw reject(PublishRejectedException.Reason.CONFIRM_WINDOW_FULL, confirmWindow
+                    + " published messages are still awaiting a broker confirm, rejecting message " + messageDto.getId());
         }
     }
 
@@ -67,20 +298,45 @@ public class MessagePublisherService {
      * Note: This uses the default exchange ("") with queue name as routing key
      */
     public void publishDirectlyToQueue(MessageDto messageDto, String targetQueueName) {
+        acquirePublishSlot(messageDto);
         try {
             log.info("Publishing message with ID: {} directly to queue: {} (using default exchange)", 
                      messageDto.getId(), targetQueueName);
             
-            rabbitTemplate.convertAndSend("", targetQueueName, messageDto);
+            rabbitTemplate.send("", targetQueueName, encode(messageDto));
             
             log.info("Message published directly to queue: {} -> {}", messageDto.getId(), targetQueueName);
         } catch (Exception e) {
             log.error("Failed to publish message directly to queue: {} -> {}", 
                      messageDto.getId(), targetQueueName, e);
             throw new RuntimeException("Failed to publish message directly to queue", e);
+        } finally {
+            inFlightPublishes.release();
         }
     }
 
+    /**
+     * Current time in microseconds since the epoch, as stored in PUBLISHED_AT_HEADER
+     */
+    public static long currentTimeMicros() {
+        Instant now = Instant.now();
+        return TimeUnit.SECONDS.toMicros(now.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(now.getNano());
+    }
+
+    private Message encode(MessageDto messageDto) {
+        Message message = messageDtoEncoder.encode(messageDto);
+        message.getMessageProperties().setHeader(PUBLISHED_AT_HEADER, currentTimeMicros());
+        return message;
+    }
+
+    /**
+     * Gets the routing key for a message: its type if that type has its own queue, else the default
+     */
+    public String routingKeyFor(MessageDto messageDto) {
+        String typeRoutingKey = typedQueueProperties.routingKeyFor(messageDto.getType());
+        return typeRoutingKey != null ? typeRoutingKey : routingKey;
+    }
+
     /**
      * Gets the configured queue name that messages will be routed to
      */
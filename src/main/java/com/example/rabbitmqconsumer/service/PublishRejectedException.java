@@ -0,0 +1,38 @@
+package com.example.rabbitmqconsumer.service;
+
+import org.springframework.amqp.AmqpException;
+
+import java.time.Duration;
+
+/**
+ * Thrown by MessagePublisherService when a publish is refused up front instead of risking
+ * a thread blocked on a flow-controlled broker. Callers should retry after getRetryAfter().
+ */
+public class PublishRejectedException extends AmqpException {
+
+    public enum Reason {
+        /** The broker sent connection.blocked (memory or disk alarm) */
+        BROKER_BLOCKED,
+        /** max-in-flight publishes are already in progress */
+        IN_FLIGHT_LIMIT,
+        /** confirm-window messages are already awaiting a broker confirm */
+        CONFIRM_WINDOW_FULL
+    }
+
+    private final Reason reason;
+    private final Duration retryAfter;
+
+    public PublishRejectedException(Reason reason, Duration retryAfter, String message) {
+        super(message);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.rabbitmqconsumer.stats;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Message counters broken down by type, source and priority.
+ *
+ * Listener threads only touch LongAdders in the current generation, so updates
+ * don't contend on a shared cache line. Readers never read live adders: snapshot()
+ * and reset() swap in a new generation, wait for the writers still inside the old one
+ * to leave, and fold it into an immutable baseline. Every update is therefore counted
+ * exactly once, either before or after a given snapshot/reset, never half-way.
+ */
+@Component
+public class MessageStats {
+
+    private final int maxKeys;
+    private final Set<StatsKey> knownKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<Generation> current = new AtomicReference<>(new Generation());
+
+    // Guarded by this
+    private Map<StatsKey, StatsCounts> baseline = Collections.emptyMap();
+    private long epoch;
+    private Instant since = Instant.now();
+
+    public MessageStats(@Value("${app.stats.max-keys:1000}") int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public void recordProcessed(MessageDto messageDto) {
+        record(messageDto, Outcome.PROCESSED);
+    }
+
+    public void recordFailed(MessageDto messageDto) {
+        record(messageDto, Outcome.FAILED);
+    }
+
+    public void recordDeadLetter(MessageDto messageDto) {
+        record(messageDto, Outcome.DEAD_LETTER);
+    }
+
+    /**
+     * Consistent copy of everything counted since the last reset
+     */
+    public synchronized StatsSnapshot snapshot() {
+        baseline = merge(baseline, retire());
+        return new StatsSnapshot(epoch, since, Instant.now(), baseline);
+    }
+
+    /**
+     * Running totals since the last reset, read from the live generation without retiring it.
+     * Cheap enough to poll, but unlike a snapshot the three counts may straddle a concurrent update.
+     */
+    public synchronized StatsCounts totals() {
+        StatsCounts total = StatsCounts.ZERO;
+        for (StatsCounts counts : baseline.values()) {
+            total = total.plus(counts);
+        }
+        for (Counters counters : current.get().counters.values()) {
+            total = total.plus(counters.toCounts());
+        }
+        return total;
+    }
+
+    /**
+     * Starts a new epoch with all counts at zero
+     *
+     * @return the final snapshot of the epoch that just ended
+     */
+    public synchronized StatsSnapshot reset() {
+        Map<StatsKey, StatsCounts> last = merge(baseline, retire());
+        StatsSnapshot finalSnapshot = new StatsSnapshot(epoch, since, Instant.now(), last);
+        baseline = Collections.emptyMap();
+        knownKeys.clear();
+        epoch++;
+        since = finalSnapshot.takenAt();
+        return finalSnapshot;
+    }
+
+    private void record(MessageDto messageDto, Outcome outcome) {
+        StatsKey key = keyFor(messageDto);
+        while (true) {
+            Generation generation = current.get();
+            generation.writers.increment();
+            try {
+                // Re-check after announcing ourselves: a retired generation must not receive updates
+                if (current.get() == generation) {
+                    generation.counters(key).adders[outcome.ordinal()].increment();
+                    return;
+                }
+            } finally {
+                generation.writers.decrement();
+            }
+        }
+    }
+
+    /**
+     * Swaps in an empty generation and returns the counts of the old one once no writer is left in it
+     */
+    private Map<StatsKey, StatsCounts> retire() {
+        Generation retired = current.getAndSet(new Generation());
+        while (retired.writers.sum() != 0) {
+            Thread.onSpinWait();
+        }
+        Map<StatsKey, StatsCounts> counts = new HashMap<>();
+        retired.counters.forEach((key, counters) -> counts.put(key, counters.toCounts()));
+        return counts;
+    }
+
+    private StatsKey keyFor(MessageDto messageDto) {
+        StatsKey key = new StatsKey(
+                normalize(messageDto.getType()),
+                normalize(messageDto.getSource()),
+                normalize(messageDto.getPriority()));
+        if (knownKeys.contains(key)) {
+            return key;
+        }
+        // Source and priority are free-form client input; cap the breakdown so it cannot grow without bound
+        if (knownKeys.size() >= maxKeys) {
+            return StatsKey.OVERFLOW;
+        }
+        knownKeys.add(key);
+        return key;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? StatsKey.UNKNOWN : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<StatsKey, StatsCounts> merge(Map<StatsKey, StatsCounts> base, Map<StatsKey, StatsCounts> delta) {
+        if (delta.isEmpty()) {
+            return base;
+        }
+        Map<StatsKey, StatsCounts> merged = new HashMap<>(base);
+        delta.forEach((key, counts) -> merged.merge(key, counts, StatsCounts::plus));
+        return Collections.unmodifiableMap(merged);
+    }
+
+    private enum Outcome { PROCESSED, FAILED, DEAD_LETTER }
+
+    private static final class Generation {
+        private final LongAdder writers = new LongAdder();
+        private final Map<StatsKey, Counters> counters = new ConcurrentHashMap<>();
+
+        private Counters counters(StatsKey key) {
+            Counters existing = counters.get(key);
+            return existing != null ? existing : counters.computeIfAbsent(key, k -> new Counters());
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder[] adders = {new LongAdder(), new LongAdder(), new LongAdder()};
+
+        private StatsCounts toCounts() {
+            return new StatsCounts(
+                    adders[Outcome.PROCESSED.ordinal()].sum(),
+                    adders[Outcome.FAILED.ordinal()].sum(),
+                    adders[Outcome.DEAD_LETTER.ordinal()].sum());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.rabbitmqconsumer.stats;
+
+/**
+ * Processed / failed / dead-letter counts for one key or aggregate
+ */
+public record StatsCounts(long processed, long failed, long deadLetter) {
+
+    public static final StatsCounts ZERO = new StatsCounts(0, 0, 0);
+
+    public StatsCounts plus(StatsCounts other) {
+        return new StatsCounts(processed + other.processed, failed + other.failed, deadLetter + other.deadLetter);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.rabbitmqconsumer.stats;
+
+/**
+ * Breakdown dimensions of the message statistics
+ */
+public record StatsKey(String type, String source, String priority) {
+
+    public static final String UNKNOWN = "unknown";
+    public static final String OTHER = "other";
+
+    /**
+     * Bucket for messages arriving once the number of distinct keys has reached its limit
+     */
+    public static final StatsKey OVERFLOW = new StatsKey(OTHER, OTHER, OTHER);
+}
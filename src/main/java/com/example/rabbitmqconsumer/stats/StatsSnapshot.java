@@ -0,0 +1,39 @@
+package com.example.rabbitmqconsumer.stats;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Point-in-time copy of MessageStats. All counts in a snapshot were read after the
+ * same set of updates, so totals and breakdowns always agree with each other.
+ *
+ * @param epoch   number of resets so far; counts cover everything since the last one
+ * @param since   when the current epoch started
+ * @param takenAt when the snapshot was taken
+ */
+public record StatsSnapshot(long epoch, Instant since, Instant takenAt, Map<StatsKey, StatsCounts> counts) {
+
+    public StatsCounts total() {
+        return counts.values().stream().reduce(StatsCounts.ZERO, StatsCounts::plus);
+    }
+
+    public Map<String, StatsCounts> byType() {
+        return groupBy(StatsKey::type);
+    }
+
+    public Map<String, StatsCounts> bySource() {
+        return groupBy(StatsKey::source);
+    }
+
+    public Map<String, StatsCounts> byPriority() {
+        return groupBy(StatsKey::priority);
+    }
+
+    private Map<String, StatsCounts> groupBy(Function<StatsKey, String> dimension) {
+        Map<String, StatsCounts> grouped = new TreeMap<>();
+        counts.forEach((key, value) -> grouped.merge(dimension.apply(key), value, StatsCounts::plus));
+        return grouped;
+    }
+}
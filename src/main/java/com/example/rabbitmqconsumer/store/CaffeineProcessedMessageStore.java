@@ -0,0 +1,168 @@
+package com.example.rabbitmqconsumer.store;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.dto.ProcessedMessagePage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded ProcessedMessageStore backed by a Caffeine cache.
+ * Entries expire ttl after they were written, and once maxEntries is reached
+ * Caffeine's W-TinyLFU policy picks the entries to evict. Size, eviction and
+ * hit/miss metrics are published under the "processedMessages" cache name.
+ *
+ * Every write gets a sequence number, which doubles as the pagination cursor.
+ * A sorted sequence -> ID index lets pages and streams walk the store in
+ * insertion order without copying it. Writes share a read lock and clear() takes
+ * the write lock, so a put never lands half in a store that is being cleared.
+ */
+public class CaffeineProcessedMessageStore implements ProcessedMessageStore, MeterBinder {
+
+    static final String CACHE_NAME = "processedMessages";
+
+    private final Cache<String, StoredMessage> cache;
+    private final ConcurrentSkipListMap<Long, String> insertionOrder = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ReadWriteLock clearLock = new ReentrantReadWriteLock();
+
+    public CaffeineProcessedMessageStore(long maxEntries, Duration ttl) {
+        this(maxEntries, ttl, Ticker.systemTicker());
+    }
+
+    CaffeineProcessedMessageStore(long maxEntries, Duration ttl, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                // Run eviction on the writing listener thread so the bound holds without a background pool
+                .executor(Runnable::run)
+                .recordStats()
+                .<String, StoredMessage>evictionListener((id, stored, cause) -> {
+                    if (stored != null) {
+                        insertionOrder.remove(stored.sequence(), id);
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public void put(MessageDto messageDto) {
+        clearLock.readLock().lock();
+        try {
+            long seq = sequence.incrementAndGet();
+            insertionOrder.put(seq, messageDto.getId());
+            StoredMessage previous = cache.asMap().put(messageDto.getId(), new StoredMessage(seq, messageDto));
+            if (previous != null) {
+                insertionOrder.remove(previous.sequence(), messageDto.getId());
+            }
+        } finally {
+            clearLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public MessageDto get(String id) {
+        StoredMessage stored = cache.getIfPresent(id);
+        return stored != null ? stored.message() : null;
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return cache.getIfPresent(id) != null;
+    }
+
+    @Override
+    public Map<String, MessageDto> snapshot() {
+        Map<String, MessageDto> snapshot = new HashMap<>();
+        cache.asMap().forEach((id, stored) -> snapshot.put(id, stored.message()));
+        return snapshot;
+    }
+
+    @Override
+    public ProcessedMessagePage page(long cursor, int limit) {
+        List<MessageDto> messages = new ArrayList<>(Math.min(limit, 1024));
+        long nextCursor = cursor;
+        for (Map.Entry<Long, String> entry : insertionOrder.tailMap(cursor, false).entrySet()) {
+            if (messages.size() == limit) {
+                return new ProcessedMessagePage(messages, nextCursor, true);
+            }
+            nextCursor = entry.getKey();
+            StoredMessage stored = lookup(entry);
+            if (stored != null) {
+                messages.add(stored.message());
+            }
+        }
+        return new ProcessedMessagePage(messages, nextCursor, false);
+    }
+
+    @Override
+    public void forEachAfter(long cursor, BiConsumer<Long, MessageDto> action) {
+        for (Map.Entry<Long, String> entry : insertionOrder.tailMap(cursor, false).entrySet()) {
+            StoredMessage stored = lookup(entry);
+            if (stored != null) {
+                action.accept(entry.getKey(), stored.message());
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public long evictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    @Override
+    public void clear() {
+        clearLock.writeLock().lock();
+        try {
+            cache.invalidateAll();
+            insertionOrder.clear();
+        } finally {
+            clearLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs any pending eviction work; useful before asserting on size()
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /*
+     * Reads without touching hit/miss stats or the eviction policy's frequency
+     * counts, so scans don't make every entry look hot. Index entries left over
+     * from an overwritten ID are skipped by the sequence check.
+     */
+    private StoredMessage lookup(Map.Entry<Long, String> indexEntry) {
+        StoredMessage stored = cache.policy().getIfPresentQuietly(indexEntry.getValue());
+        return stored != null && stored.sequence() == indexEntry.getKey() ? stored : null;
+    }
+
+    private record StoredMessage(long sequence, MessageDto message) {
+    }
+}
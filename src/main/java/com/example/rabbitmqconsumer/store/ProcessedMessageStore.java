@@ -0,0 +1,50 @@
+package com.example.rabbitmqconsumer.store;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.dto.ProcessedMessagePage;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps track of successfully processed messages, keyed by message ID.
+ * Implementations must be safe for concurrent use by listener threads and
+ * are expected to bound their own size.
+ */
+public interface ProcessedMessageStore {
+
+    void put(MessageDto messageDto);
+
+    /**
+     * Returns the processed message with the given ID, or null if it is unknown or was evicted
+     */
+    MessageDto get(String id);
+
+    boolean contains(String id);
+
+    /**
+     * Returns a point-in-time copy of the store contents
+     */
+    Map<String, MessageDto> snapshot();
+
+    /**
+     * Returns up to limit entries stored after the given cursor, oldest first.
+     * A cursor of 0 starts from the oldest entry.
+     */
+    ProcessedMessagePage page(long cursor, int limit);
+
+    /**
+     * Hands every entry stored after the given cursor to the action, oldest first,
+     * without copying the store. The action receives each entry's cursor and message.
+     */
+    void forEachAfter(long cursor, BiConsumer<Long, MessageDto> action);
+
+    long size();
+
+    /**
+     * Returns the number of entries removed by the size bound or TTL since startup
+     */
+    long evictionCount();
+
+    void clear();
+}
@@ -0,0 +1,96 @@
+package com.example.rabbitmqconsumer.validation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cheap checks on AMQP properties and body size, run before a message body is deserialized.
+ * Producers going through MessagePublisherService get messageId and type stamped by
+ * MessagePropertiesStampingConverter. Other producers (a plain convertAndSend with the JSON
+ * converter, older clients) may not set them, so requiring them is opt-in; without them the
+ * consumer still validates id and type on the deserialized body.
+ * Every reject is counted as messages.prevalidation.rejects{reason}.
+ */
+@Component
+public class MessagePreValidator {
+
+    public static final String MISSING_ID = "missing_id";
+    public static final String MISSING_TYPE = "missing_type";
+    public static final String EMPTY_BODY = "empty_body";
+    public static final String BODY_TOO_LARGE = "body_too_large";
+    public static final String UNSUPPORTED_CONTENT_TYPE = "unsupported_content_type";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> rejectCounters = new ConcurrentHashMap<>();
+
+    @Value("${app.rabbitmq.validation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rabbitmq.validation.require-message-id:false}")
+    private boolean requireMessageId;
+
+    @Value("${app.rabbitmq.validation.require-type:false}")
+    private boolean requireType;
+
+    @Value("${app.rabbitmq.validation.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+
+    @Value("${app.rabbitmq.validation.content-types:application/json}")
+    private List<String> contentTypes;
+
+    public MessagePreValidator(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return null if the message may be deserialized, otherwise the reject reason
+     */
+    public String validate(Message message) {
+        if (!enabled) {
+            return null;
+        }
+        String reason = check(message);
+        if (reason != null) {
+            rejectCounters.computeIfAbsent(reason, r -> Counter.builder("messages.prevalidation.rejects")
+                            .description("Messages sent to the DLQ by header pre-validation, before deserialization")
+                            .tag("reason", r)
+                            .register(meterRegistry))
+                    .increment();
+        }
+        return reason;
+    }
+
+    private String check(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        byte[] body = message.getBody();
+        if (body == null || body.length == 0) {
+            return EMPTY_BODY;
+        }
+        if (body.length > maxBodyBytes) {
+            return BODY_TOO_LARGE;
+        }
+        if (requireMessageId && isBlank(properties.getMessageId())) {
+            return MISSING_ID;
+        }
+        if (requireType && isBlank(properties.getType())) {
+            return MISSING_TYPE;
+        }
+        String contentType = properties.getContentType();
+        if (contentType != null && contentTypes.stream().noneMatch(contentType::startsWith)) {
+            return UNSUPPORTED_CONTENT_TYPE;
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.rabbitmqconsumer.validation;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * Copies MessageDto id and type into the AMQP messageId and type properties on publish,
+ * so MessagePreValidator can check them on the consumer side without reading the body.
+ */
+public class MessagePropertiesStampingConverter implements MessageConverter {
+
+    private final MessageConverter delegate;
+
+    public MessagePropertiesStampingConverter(MessageConverter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        if (object instanceof MessageDto messageDto) {
+            if (messageProperties.getMessageId() == null) {
+                messageProperties.setMessageId(messageDto.getId());
+            }
+            if (messageProperties.getType() == null) {
+                messageProperties.setType(messageDto.getType());
+            }
+        }
+        return delegate.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        return delegate.fromMessage(message);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.rabbitmqconsumer.adaptive;
+
+import com.example.rabbitmqconsumer.adaptive.AimdConcurrencyPolicy.Action;
+import com.example.rabbitmqconsumer.adaptive.AimdConcurrencyPolicy.Step;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AimdConcurrencyPolicyTest {
+
+    private AdaptiveConcurrencyProperties properties;
+    private AimdConcurrencyPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AdaptiveConcurrencyProperties();
+        properties.setMinConsumers(1);
+        properties.setMaxConsumers(10);
+        properties.setConsumerStep(1);
+        properties.setMinPrefetch(1);
+        properties.setMaxPrefetch(50);
+        properties.setPrefetchStep(5);
+        properties.setDecreaseFactor(0.5);
+        properties.setTargetLatency(Duration.ofMillis(100));
+        properties.setMaxErrorRate(0.1);
+        policy = new AimdConcurrencyPolicy(properties);
+    }
+
+    @Test
+    void testBacklogIncreasesAdditively() {
+        Step step = policy.next(2, 10, sample(100, 0, 20), 500);
+
+        assertEquals(Action.INCREASE, step.action());
+        assertEquals(3, step.consumers());
+        assertEquals(15, step.prefetch());
+    }
+
+    @Test
+    void testHighLatencyDecreasesMultiplicatively() {
+        Step step = policy.next(8, 40, sample(100, 0, 250), 10_000);
+
+        assertEquals(Action.DECREASE, step.action());
+        assertEquals(4, step.consumers());
+        assertEquals(20, step.prefetch());
+    }
+
+    @Test
+    void testHighErrorRateDecreasesMultiplicatively() {
+        Step step = policy.next(4, 10, sample(100, 20, 10), 10_000);
+
+        assertEquals(Action.DECREASE, step.action());
+        assertEquals(2, step.consumers());
+        assertEquals(5, step.prefetch());
+    }
+
+    @Test
+    void testStepsAreClampedToBounds() {
+        assertEquals(10, policy.next(10, 50, sample(10, 0, 10), 10_000).consumers());
+        assertEquals(50, policy.next(10, 50, sample(10, 0, 10), 10_000).prefetch());
+        assertEquals(1, policy.next(1, 1, sample(10, 10, 10), 0).consumers());
+        assertEquals(1, policy.next(1, 1, sample(10, 10, 10), 0).prefetch());
+    }
+
+    @Test
+    void testIdleQueueReleasesOneConsumer() {
+        Step step = policy.next(3, 10, LoadSample.EMPTY, 0);
+
+        assertEquals(Action.IDLE, step.action());
+        assertEquals(2, step.consumers());
+        assertEquals(10, step.prefetch());
+    }
+
+    @Test
+    void testHoldsWhenHealthyWithoutBacklog() {
+        Step step = policy.next(3, 10, sample(50, 1, 20), 5);
+
+        assertEquals(Action.HOLD, step.action());
+        assertEquals(3, step.consumers());
+        assertEquals(10, step.prefetch());
+    }
+
+    @Test
+    void testListenerBoundOverridesMaxConsumers() {
+        Step widened = policy.next(50, 10, sample(100, 0, 20), 10_000, 500);
+        Step held = policy.next(500, 10, sample(100, 0, 20), 10_000, 500);
+
+        assertEquals(51, widened.consumers());
+        assertEquals(500, held.consumers());
+        assertEquals(10, policy.next(50, 10, sample(100, 0, 20), 10_000).consumers());
+    }
+
+    @Test
+    void testUnknownQueueDepthHolds() {
+        Step step = policy.next(3, 10, LoadSample.EMPTY, -1);
+
+        assertEquals(Action.HOLD, step.action());
+    }
+
+    @Test
+    void testTrackerDrainsAndResetsWindow() {
+        ListenerLoadTracker tracker = new ListenerLoadTracker();
+        tracker.record("queue.order", 2_000_000, true);
+        tracker.record("queue.order", 4_000_000, false);
+        tracker.record(null, 1_000_000, true);
+
+        LoadSample sample = tracker.drain("queue.order");
+
+        assertEquals(2, sample.count());
+        assertEquals(0.5, sample.errorRate());
+        assertEquals(3.0, sample.averageLatencyMillis());
+        assertEquals(LoadSample.EMPTY, tracker.drain("queue.order"));
+        assertEquals(LoadSample.EMPTY, tracker.drain("queue.unknown"));
+    }
+
+    private LoadSample sample(long count, long errors, long averageLatencyMillis) {
+        return new LoadSample(count, errors, count * averageLatencyMillis * 1_000_000);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.rabbitmqconsumer.compression;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionPostProcessorTest {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CompressingPostProcessor compressor;
+    private DecompressingPostProcessor decompressor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CompressionMetrics metrics = new CompressionMetrics(meterRegistry);
+        DeflateCompressionCodec deflate = new DeflateCompressionCodec(6);
+        compressor = new CompressingPostProcessor(deflate, 1024, metrics);
+        decompressor = new DecompressingPostProcessor(List.of(deflate, new GzipCompressionCodec()), metrics, MAX_BODY_BYTES);
+    }
+
+    @Test
+    void testLargeBodyIsCompressedAndRestored() {
+        byte[] body = "{\"content\":\"order\"}".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+        MessageProperties properties = new MessageProperties();
+        properties.setContentEncoding("UTF-8");
+
+        Message compressed = compressor.postProcessMessage(new Message(body.clone(), properties));
+        assertEquals("deflate:UTF-8", compressed.getMessageProperties().getContentEncoding());
+        assertTrue(compressed.getBody().length < body.length);
+
+        Message restored = decompressor.postProcessMessage(compressed);
+        assertArrayEquals(body, restored.getBody());
+        assertEquals("UTF-8", restored.getMessageProperties().getContentEncoding());
+
+        assertEquals(1, meterRegistry.get("messages.compression.ratio").summary().count());
+        assertEquals(1, meterRegistry.get("messages.compression.cpu").tag("operation", "compress").timer().count());
+        assertEquals(1, meterRegistry.get("messages.compression.cpu").tag("operation", "decompress").timer().count());
+    }
+
+    @Test
+    void testSmallOrAlreadyEncodedBodyIsLeftAlone() {
+        Message small = new Message("small".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+        MessageProperties encodedProperties = new MessageProperties();
+        encodedProperties.setContentEncoding("gzip");
+        Message encoded = new Message(new byte[2048], encodedProperties);
+
+        assertSame(small, compressor.postProcessMessage(small));
+        assertSame(encoded, compressor.postProcessMessage(encoded));
+        assertNull(small.getMessageProperties().getContentEncoding());
+    }
+
+    @Test
+    void testGzipBodyIsDecodedByRegisteredCodec() {
+        GzipCompressionCodec gzip = new GzipCompressionCodec();
+        byte[] body = "payload".repeat(100).getBytes(StandardCharsets.UTF_8);
+        MessageProperties properties = new MessageProperties();
+        properties.setContentEncoding("GZIP");
+
+        Message restored = decompressor.postProcessMessage(new Message(gzip.compress(body), properties));
+
+        assertArrayEquals(body, restored.getBody());
+        assertNull(restored.getMessageProperties().getContentEncoding());
+    }
+
+    @Test
+    void testUnknownEncodingPassesThroughAndCorruptBodyIsRejected() {
+        MessageProperties unknown = new MessageProperties();
+        unknown.setContentEncoding("UTF-8");
+        Message plain = new Message("text".getBytes(StandardCharsets.UTF_8), unknown);
+        MessageProperties deflated = new MessageProperties();
+        deflated.setContentEncoding(DeflateCompressionCodec.ENCODING);
+        Message corrupt = new Message(new byte[]{1, 2, 3, 4}, deflated);
+
+        assertSame(plain, decompressor.postProcessMessage(plain));
+        assertThrows(AmqpRejectAndDontRequeueException.class, () -> decompressor.postProcessMessage(corrupt));
+    }
+
+    @Test
+    void testBodyDecodingPastMaxBodyBytesIsRejected() {
+        byte[] bomb = new byte[MAX_BODY_BYTES + 1];
+        MessageProperties deflated = new MessageProperties();
+        deflated.setContentEncoding(DeflateCompressionCodec.ENCODING);
+        MessageProperties gzipped = new MessageProperties();
+        gzipped.setContentEncoding(GzipCompressionCodec.ENCODING);
+        Message deflateBomb = new Message(new DeflateCompressionCodec(9).compress(bomb), deflated);
+        Message gzipBomb = new Message(new GzipCompressionCodec().compress(bomb), gzipped);
+        MessageProperties atLimit = new MessageProperties();
+        atLimit.setContentEncoding(GzipCompressionCodec.ENCODING);
+        byte[] largest = new byte[MAX_BODY_BYTES];
+
+        assertThrows(AmqpRejectAndDontRequeueException.class, () -> decompressor.postProcessMessage(deflateBomb));
+        assertThrows(AmqpRejectAndDontRequeueException.class, () -> decompressor.postProcessMessage(gzipBomb));
+        assertEquals(MAX_BODY_BYTES, decompressor.postProcessMessage(
+                new Message(new GzipCompressionCodec().compress(largest), atLimit)).getBody().length);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.rabbitmqconsumer.config;
+
+import com.example.rabbitmqconsumer.compression.DecompressingPostProcessor;
+import com.example.rabbitmqconsumer.consumer.MessageConsumer;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.config.BeanExpressionContext;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.expression.StandardBeanExpressionResolver;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class VirtualThreadListenerTest {
+
+    @Test
+    void testVirtualThreadFactoryRunsConsumersOnVirtualThreadsWithConfiguredConcurrency() throws Exception {
+        RabbitMqConfig config = new RabbitMqConfig();
+        ReflectionTestUtils.setField(config, "virtualThreadConcurrency", 40);
+        ReflectionTestUtils.setField(config, "virtualThreadMaxConcurrency", 400);
+
+        SimpleRabbitListenerContainerFactory factory = config.virtualThreadRabbitListenerContainerFactory(
+                new SimpleRabbitListenerContainerFactoryConfigurer(new RabbitProperties()),
+                mock(ConnectionFactory.class), mock(DecompressingPostProcessor.class));
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId("message-listener");
+        endpoint.setQueueNames("message.queue");
+        endpoint.setMessageListener(message -> { });
+        SimpleMessageListenerContainer container = factory.createListenerContainer(endpoint);
+        DirectFieldAccessor accessor = new DirectFieldAccessor(container);
+
+        assertEquals(40, accessor.getPropertyValue("concurrentConsumers"));
+        assertEquals(400, accessor.getPropertyValue("maxConcurrentConsumers"));
+        Executor taskExecutor = (Executor) accessor.getPropertyValue("taskExecutor");
+        assertInstanceOf(SimpleAsyncTaskExecutor.class, taskExecutor);
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        taskExecutor.execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+        assertTrue(virtual.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testMessageListenerUsesVirtualThreadFactoryOnlyWhenEnabled() throws Exception {
+        assertEquals("virtualThreadRabbitListenerContainerFactory",
+                messageListenerContainerFactory(new MockEnvironment()
+                        .withProperty("app.rabbitmq.listener.virtual-threads.enabled", "true")));
+        assertEquals("rabbitListenerContainerFactory",
+                messageListenerContainerFactory(new MockEnvironment()
+                        .withProperty("app.rabbitmq.listener.virtual-threads.enabled", "false")));
+        assertEquals("rabbitListenerContainerFactory", messageListenerContainerFactory(new MockEnvironment()));
+    }
+
+    /**
+     * Resolves the containerFactory of the message-listener endpoint the way
+     * RabbitListenerAnnotationBeanPostProcessor does: placeholders first, then SpEL
+     */
+    private String messageListenerContainerFactory(MockEnvironment environment) throws Exception {
+        RabbitListener listener = MessageConsumer.class.getMethod("receiveMessage", Message.class)
+                .getAnnotation(RabbitListener.class);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.addEmbeddedValueResolver(environment::resolvePlaceholders);
+        String expression = beanFactory.resolveEmbeddedValue(listener.containerFactory());
+        return (String) new StandardBeanExpressionResolver()
+                .evaluate(expression, new BeanExpressionContext(beanFactory, null));
+    }
+}
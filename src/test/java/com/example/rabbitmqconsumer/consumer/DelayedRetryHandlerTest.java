@@ -0,0 +1,107 @@
+package com.example.rabbitmqconsumer.consumer;
+
+import com.example.rabbitmqconsumer.config.RetryProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DelayedRetryHandlerTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private RetryProperties retryProperties;
+    private DelayedRetryHandler delayedRetryHandler;
+
+    @BeforeEach
+    void setUp() {
+        retryProperties = new RetryProperties();
+        retryProperties.setEnabled(true);
+        retryProperties.setDelays(List.of(Duration.ofSeconds(1), Duration.ofSeconds(10)));
+        retryProperties.setConfirmTimeout(Duration.ofSeconds(1));
+        delayedRetryHandler = new DelayedRetryHandler(rabbitTemplate, retryProperties);
+        ReflectionTestUtils.setField(delayedRetryHandler, "exchangeName", "message.exchange");
+    }
+
+    @Test
+    void testFirstFailureGoesToFirstTierWithOriginalRoutingKey() {
+        confirmSends(true);
+
+        boolean scheduled = delayedRetryHandler.scheduleRetry(message(null), new RuntimeException("boom"));
+
+        assertTrue(scheduled);
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("message.exchange.retry.1000"), eq("order"), captor.capture(), any(CorrelationData.class));
+        assertEquals(1, DelayedRetryHandler.getRetryCount(captor.getValue()));
+        assertEquals("RuntimeException: boom",
+                captor.getValue().getMessageProperties().getHeaders().get(RetryProperties.RETRY_REASON_HEADER));
+    }
+
+    @Test
+    void testSecondFailureGoesToNextTier() {
+        confirmSends(true);
+
+        assertTrue(delayedRetryHandler.scheduleRetry(message(1), new RuntimeException("boom")));
+
+        verify(rabbitTemplate).send(eq("message.exchange.retry.10000"), eq("order"), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void testExhaustedRetriesAreNotRescheduled() {
+        assertFalse(delayedRetryHandler.scheduleRetry(message(2), new RuntimeException("boom")));
+
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void testNackedRetryFallsBackToDeadLetter() {
+        confirmSends(false);
+
+        assertFalse(delayedRetryHandler.scheduleRetry(message(null), new RuntimeException("boom")));
+    }
+
+    @Test
+    void testDisabledRetriesAreNotScheduled() {
+        retryProperties.setEnabled(false);
+
+        assertFalse(delayedRetryHandler.scheduleRetry(message(null), new RuntimeException("boom")));
+
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    private void confirmSends(boolean ack) {
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private Message message(Integer retryCount) {
+        MessageProperties properties = new MessageProperties();
+        properties.setReceivedRoutingKey("order");
+        if (retryCount != null) {
+            properties.setHeader(RetryProperties.RETRY_COUNT_HEADER, retryCount);
+        }
+        return new Message("{}".getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
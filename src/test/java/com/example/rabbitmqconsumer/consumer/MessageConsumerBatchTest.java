@@ -0,0 +1,283 @@
+package com.example.rabbitmqconsumer.consumer;
+
+import com.example.rabbitmqconsumer.adaptive.ListenerLoadTracker;
+import com.example.rabbitmqconsumer.compression.CompressionMetrics;
+import com.example.rabbitmqconsumer.compression.DecompressingPostProcessor;
+import com.example.rabbitmqconsumer.compression.DeflateCompressionCodec;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.loadtest.LoadGenerator;
+import com.example.rabbitmqconsumer.logging.HotPathLogger;
+import com.example.rabbitmqconsumer.metrics.MessagingMetrics;
+import com.example.rabbitmqconsumer.service.MessageProcessingService;
+import com.example.rabbitmqconsumer.validation.MessagePreValidator;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageConsumerBatchTest {
+
+    @Mock
+    private MessageProcessingService messageProcessingService;
+
+    @Mock
+    private MessageConverter messageConverter;
+
+    @Mock
+    private ListenerLoadTracker listenerLoadTracker;
+
+    @Mock
+    private Channel channel;
+
+    @Mock
+    private MessagingMetrics messagingMetrics;
+
+    @Mock
+    private DelayedRetryHandler delayedRetryHandler;
+
+    @Mock
+    private MessagePreValidator messagePreValidator;
+
+    @Mock
+    private HotPathLogger hotPathLogger;
+
+    @Mock
+    private LoadGenerator loadGenerator;
+
+    @Spy
+    private DecompressingPostProcessor decompressingPostProcessor = new DecompressingPostProcessor(
+            List.of(new DeflateCompressionCodec(6)), new CompressionMetrics(new SimpleMeterRegistry()), 1024);
+
+    @InjectMocks
+    private MessageConsumer messageConsumer;
+
+    private Message message1;
+    private Message message2;
+    private Message message3;
+
+    @BeforeEach
+    void setUp() {
+        message1 = createMessage(1L);
+        message2 = createMessage(2L);
+        message3 = createMessage(3L);
+    }
+
+    @Test
+    void testConsumeBatchAcksEverySuccessfulMessage() throws Exception {
+        when(messageConverter.fromMessage(any(Message.class)))
+                .thenReturn(createDto("id1"), createDto("id2"), createDto("id3"));
+        when(messageProcessingService.processBatch(anyList())).thenReturn(List.of(true, true, true));
+
+        messageConsumer.consumeBatch(List.of(message1, message2, message3), channel);
+
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicAck(2L, false);
+        verify(channel).basicAck(3L, false);
+        verify(channel, never()).basicReject(anyLong(), anyBoolean());
+        verify(messageProcessingService, never()).recordDeadLettered(any());
+    }
+
+    @Test
+    void testConsumeBatchRejectsOnlyFailedElements() throws Exception {
+        MessageDto failed = createDto("id2");
+        when(messageConverter.fromMessage(any(Message.class)))
+                .thenReturn(createDto("id1"), failed, createDto("id3"));
+        when(messageProcessingService.processBatch(anyList())).thenReturn(List.of(true, false, true));
+
+        messageConsumer.consumeBatch(List.of(message1, message2, message3), channel);
+
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicReject(2L, false);
+        verify(channel).basicAck(3L, false);
+        verify(messageProcessingService).recordDeadLettered(failed);
+    }
+
+    @Test
+    void testConsumeBatchRequeuesElementsOfSaturatedHandlers() throws Exception {
+        when(messageConverter.fromMessage(any(Message.class)))
+                .thenReturn(createDto("id1"), createDto("id2"), createDto("id3"));
+        when(messageProcessingService.processBatch(anyList())).thenReturn(Arrays.asList(true, null, true));
+
+        messageConsumer.consumeBatch(List.of(message1, message2, message3), channel);
+
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicNack(2L, false, true);
+        verify(channel).basicAck(3L, false);
+        verify(channel, never()).basicReject(anyLong(), anyBoolean());
+        verify(delayedRetryHandler, never()).scheduleRetry(any(), any());
+    }
+
+    @Test
+    void testConsumeBatchNacksEveryDeliveryWhenProcessingThrows() throws Exception {
+        message3.getMessageProperties().setRedelivered(true);
+        when(messageConverter.fromMessage(any(Message.class)))
+                .thenReturn(createDto("id1"), createDto("id2"), createDto("id3"));
+        when(messageProcessingService.processBatch(anyList())).thenThrow(new IllegalStateException("store unavailable"));
+
+        assertThrows(IllegalStateException.class,
+                () -> messageConsumer.consumeBatch(List.of(message1, message2, message3), channel));
+
+        // First deliveries are requeued, an already redelivered one goes to the DLQ
+        verify(channel).basicNack(1L, false, true);
+        verify(channel).basicNack(2L, false, true);
+        verify(channel).basicNack(3L, false, false);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        verify(messageProcessingService, times(1)).recordDeadLettered(isNull());
+    }
+
+    @Test
+    void testConsumeBatchNacksRemainingDeliveriesWhenAckFails() throws Exception {
+        when(messageConverter.fromMessage(any(Message.class)))
+                .thenReturn(createDto("id1"), createDto("id2"), createDto("id3"));
+        when(messageProcessingService.processBatch(anyList())).thenReturn(List.of(true, true, true));
+        doThrow(new IOException("channel error")).when(channel).basicAck(2L, false);
+
+        assertThrows(IOException.class,
+                () -> messageConsumer.consumeBatch(List.of(message1, message2, message3), channel));
+
+        verify(channel).basicAck(1L, false);
+        verify(channel, never()).basicNack(eq(1L), anyBoolean(), anyBoolean());
+        verify(channel).basicNack(2L, false, true);
+        verify(channel).basicNack(3L, false, true);
+    }
+
+    @Test
+    void testConsumeBatchAcksFailedElementsHandedToDelayedRetry() throws Exception {
+        when(messageConverter.fromMessage(any(Message.class)))
+                .thenReturn(createDto("id1"), createDto("id2"), createDto("id3"));
+        when(messageProcessingService.processBatch(anyList())).thenReturn(List.of(true, false, true));
+        when(delayedRetryHandler.scheduleRetry(eq(message2), any(Exception.class))).thenReturn(true);
+
+        messageConsumer.consumeBatch(List.of(message1, message2, message3), channel);
+
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicAck(2L, false);
+        verify(channel).basicAck(3L, false);
+        verify(channel, never()).basicReject(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void testConsumeBatchRejectsMalformedElementsWithoutDeserializing() throws Exception {
+        when(messagePreValidator.validate(any(Message.class)))
+                .thenReturn(null, MessagePreValidator.MISSING_ID, null);
+        when(messageConverter.fromMessage(any(Message.class)))
+                .thenReturn(createDto("id1"), createDto("id3"));
+        when(messageProcessingService.processBatch(anyList())).thenReturn(List.of(true, true));
+
+        messageConsumer.consumeBatch(List.of(message1, message2, message3), channel);
+
+        verify(messageConverter, times(2)).fromMessage(any(Message.class));
+        verify(channel).basicReject(2L, false);
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicAck(3L, false);
+    }
+
+    @Test
+    void testConsumeBatchRejectsInvalidElementsBeforeProcessing() throws Exception {
+        MessageDto invalid = createDto("id2");
+        invalid.setContent(null);
+        when(messageConverter.fromMessage(any(Message.class)))
+                .thenReturn(createDto("id1"))
+                .thenReturn(invalid)
+                .thenThrow(new MessageConversionException("Bad payload"));
+        when(messageProcessingService.processBatch(anyList())).thenReturn(List.of(true));
+
+        messageConsumer.consumeBatch(List.of(message1, message2, message3), channel);
+
+        verify(messageProcessingService).processBatch(argThat(batch -> batch.size() == 1));
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicReject(2L, false);
+        verify(channel).basicReject(3L, false);
+    }
+
+    @Test
+    void testConsumeBatchWithOnlyInvalidMessagesSkipsProcessing() throws Exception {
+        when(messageConverter.fromMessage(any(Message.class))).thenReturn(null);
+
+        assertDoesNotThrow(() -> messageConsumer.consumeBatch(List.of(message1), channel));
+
+        verify(messageProcessingService, never()).processBatch(anyList());
+        verify(channel).basicReject(1L, false);
+    }
+
+    @Test
+    void testMessageWithoutAmqpIdAndTypeIsConsumedWithDefaultValidation() throws Exception {
+        // Real validator with the default settings and a real converter
+        MessagePreValidator validator = new MessagePreValidator(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(validator, "enabled", true);
+        ReflectionTestUtils.setField(validator, "maxBodyBytes", 1048576);
+        ReflectionTestUtils.setField(validator, "contentTypes", List.of("application/json"));
+        Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
+        MessageConsumer consumer = new MessageConsumer(messageProcessingService, converter, listenerLoadTracker,
+                messagingMetrics, delayedRetryHandler, validator, hotPathLogger, loadGenerator,
+                decompressingPostProcessor);
+
+        // Published by a plain convertAndSend(): no messageId or type property
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(7L);
+        Message plain = converter.toMessage(createDto("plain-1"), properties);
+        when(messageProcessingService.processBatch(anyList())).thenReturn(List.of(true));
+
+        consumer.consumeBatch(List.of(plain), channel);
+
+        verify(messageProcessingService).processBatch(argThat(batch -> batch.size() == 1
+                && "plain-1".equals(batch.get(0).getId())));
+        verify(channel).basicAck(7L, false);
+        verify(channel, never()).basicReject(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void testConsumeBatchRejectsOversizedCompressedElement() throws Exception {
+        // Inflates past the 1 KiB limit, so the decompressor refuses it
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(2L);
+        properties.setContentEncoding(DeflateCompressionCodec.ENCODING);
+        Message oversized = new Message(new DeflateCompressionCodec(6).compress(new byte[4096]), properties);
+        when(messageConverter.fromMessage(any(Message.class)))
+                .thenReturn(createDto("id1"), createDto("id3"));
+        when(messageProcessingService.processBatch(anyList())).thenReturn(List.of(true, true));
+
+        messageConsumer.consumeBatch(List.of(message1, oversized, message3), channel);
+
+        verify(channel).basicReject(2L, false);
+        verify(messageProcessingService).recordDeadLettered(null);
+        verify(messagePreValidator, never()).validate(oversized);
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicAck(3L, false);
+        verify(channel, never()).basicAck(eq(2L), anyBoolean());
+    }
+
+    private Message createMessage(long deliveryTag) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(new byte[0], properties);
+    }
+
+    private MessageDto createDto(String id) {
+        return new MessageDto(id, "Batch content " + id, "notification");
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.rabbitmqconsumer.consumer;
 
+import com.example.rabbitmqconsumer.adaptive.ListenerLoadTracker;
+import com.example.rabbitmqconsumer.config.RetryProperties;
 import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.handler.HandlerSaturatedException;
+import com.example.rabbitmqconsumer.loadtest.LoadGenerator;
+import com.example.rabbitmqconsumer.logging.HotPathLogger;
+import com.example.rabbitmqconsumer.metrics.MessagingMetrics;
 import com.example.rabbitmqconsumer.service.MessageProcessingService;
+import com.example.rabbitmqconsumer.service.MessagePublisherService;
+import com.example.rabbitmqconsumer.validation.MessagePreValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -9,16 +17,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,12 +43,33 @@ class MessageConsumerTest {
     @Mock
     private MessageProcessingService messageProcessingService;
 
+    @Mock
+    private MessageConverter messageConverter;
+
+    @Mock
+    private ListenerLoadTracker listenerLoadTracker;
+
     @Mock
     private Message message;
 
     @Mock
     private MessageProperties messageProperties;
 
+    @Mock
+    private MessagingMetrics messagingMetrics;
+
+    @Mock
+    private DelayedRetryHandler delayedRetryHandler;
+
+    @Mock
+    private MessagePreValidator messagePreValidator;
+
+    @Mock
+    private HotPathLogger hotPathLogger;
+
+    @Mock
+    private LoadGenerator loadGenerator;
+
     @InjectMocks
     private MessageConsumer messageConsumer;
 
@@ -72,6 +109,69 @@ class MessageConsumerTest {
         verify(messageProcessingService).processMessage(eq(testMessageDto), eq(testHeaders));
     }
 
+    @Test
+    void testQueueWaitIsRecordedFromPublishTimeHeader() {
+        // Arrange - published 250ms ago
+        testHeaders.put(MessagePublisherService.PUBLISHED_AT_HEADER,
+                MessagePublisherService.currentTimeMicros() - TimeUnit.MILLISECONDS.toMicros(250));
+        when(messageProcessingService.processMessage(any(MessageDto.class), any(Map.class)))
+                .thenReturn(true);
+
+        // Act
+        messageConsumer.consumeMessage(testMessageDto, "test.routing.key", message);
+
+        // Verify
+        verify(messageProcessingService).recordQueueWait(eq(testMessageDto),
+                longThat(nanos -> nanos >= TimeUnit.MILLISECONDS.toNanos(250) && nanos < TimeUnit.SECONDS.toNanos(10)));
+    }
+
+    @Test
+    void testQueueWaitIsNotRecordedForRetriedOrUnstampedMessages() {
+        // Arrange
+        when(messageProcessingService.processMessage(any(MessageDto.class), any(Map.class)))
+                .thenReturn(true);
+
+        // Act - no publish time header
+        messageConsumer.consumeMessage(testMessageDto, "test.routing.key", message);
+
+        // Act - retry copy, stamped before its first delivery and the retry delay
+        testHeaders.put(MessagePublisherService.PUBLISHED_AT_HEADER, MessagePublisherService.currentTimeMicros());
+        testHeaders.put(RetryProperties.RETRY_COUNT_HEADER, 1);
+        messageConsumer.consumeMessage(testMessageDto, "test.routing.key", message);
+
+        // Verify
+        verify(messageProcessingService, never()).recordQueueWait(any(), anyLong());
+    }
+
+    @Test
+    void testFailedMessageIsHandedToDelayedRetry() {
+        // Arrange
+        String routingKey = "test.routing.key";
+        when(messageProcessingService.processMessage(any(MessageDto.class), any(Map.class)))
+                .thenReturn(false);
+        when(delayedRetryHandler.scheduleRetry(eq(message), any(Exception.class))).thenReturn(true);
+
+        // Act & Assert - the delivery is acked, the retry copy comes back after the delay
+        assertDoesNotThrow(() -> messageConsumer.consumeMessage(testMessageDto, routingKey, message));
+
+        // Verify
+        verify(delayedRetryHandler).scheduleRetry(eq(message), any(RuntimeException.class));
+        verify(messageProcessingService, never()).recordDeadLettered(any());
+    }
+
+    @Test
+    void testInvalidMessageIsNotRetried() {
+        // Arrange
+        testMessageDto.setContent(null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> messageConsumer.consumeMessage(testMessageDto, "test.routing.key", message));
+
+        // Verify
+        verify(delayedRetryHandler, never()).scheduleRetry(any(), any());
+    }
+
     @Test
     void testConsumeMessageWithNullMessage() {
         // Arrange
@@ -130,8 +230,9 @@ class MessageConsumerTest {
 
         assertEquals("Message processing failed", exception.getMessage());
         
-        // Verify
+        // Verify - no retry left, so the rejection is counted as a dead letter
         verify(messageProcessingService).processMessage(eq(testMessageDto), eq(testHeaders));
+        verify(messageProcessingService).recordDeadLettered(testMessageDto);
     }
 
     @Test
@@ -153,6 +254,22 @@ class MessageConsumerTest {
         verify(messageProcessingService).processMessage(eq(testMessageDto), eq(testHeaders));
     }
 
+    @Test
+    void testSaturatedHandlerRequeuesWithoutRetryOrFailure() {
+        // Arrange
+        when(messageProcessingService.processMessage(any(MessageDto.class), any(Map.class)))
+                .thenThrow(new HandlerSaturatedException("Handler for message type 'order' is saturated (3 in flight)"));
+
+        // Act & Assert
+        assertThrows(ImmediateRequeueAmqpException.class,
+                () -> messageConsumer.consumeMessage(testMessageDto, "test.routing.key", message));
+
+        // Verify
+        verify(delayedRetryHandler, never()).scheduleRetry(any(), any());
+        verify(hotPathLogger, never()).failure(anyString(), any(), any());
+        assertEquals(0, testMessageDto.getRetryCount());
+    }
+
     @Test
     void testConsumeDeadLetterMessage() {
         // Arrange
@@ -306,6 +423,64 @@ class MessageConsumerTest {
         verify(messageProcessingService).handleDeadLetterMessage(eq(testMessageDto), eq(testHeaders));
     }
 
+    @Test
+    void testConsumeTypedMessageConvertsAndProcesses() {
+        // Arrange
+        when(messageConverter.fromMessage(message)).thenReturn(testMessageDto);
+        when(messageProcessingService.processMessage(any(MessageDto.class), any(Map.class)))
+                .thenReturn(true);
+
+        // Act & Assert - should not throw exception
+        assertDoesNotThrow(() -> messageConsumer.consumeTypedMessage(message));
+
+        // Verify
+        verify(messageProperties).setInferredArgumentType(MessageDto.class);
+        verify(messageProcessingService).processMessage(eq(testMessageDto), eq(testHeaders));
+    }
+
+    @Test
+    void testConsumeTypedMessageWithUnconvertiblePayload() {
+        // Arrange
+        when(messageConverter.fromMessage(message))
+                .thenThrow(new MessageConversionException("Bad payload"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> messageConsumer.consumeTypedMessage(message));
+
+        // Verify
+        verify(messageProcessingService, never()).processMessage(any(), any());
+    }
+
+    @Test
+    void testMalformedMessageIsRejectedBeforeDeserialization() {
+        // Arrange
+        when(messagePreValidator.validate(message)).thenReturn(MessagePreValidator.MISSING_TYPE);
+
+        // Act & Assert
+        assertThrows(AmqpRejectAndDontRequeueException.class, () -> messageConsumer.receiveMessage(message));
+
+        // Verify
+        verify(messageConverter, never()).fromMessage(any());
+        verify(messageProcessingService, never()).processMessage(any(), any());
+        verify(delayedRetryHandler, never()).scheduleRetry(any(), any());
+        verify(messageProcessingService).recordDeadLettered(isNull());
+    }
+
+    @Test
+    void testReceiveMessageConvertsAndProcessesValidMessage() {
+        // Arrange
+        when(messageConverter.fromMessage(message)).thenReturn(testMessageDto);
+        when(messageProcessingService.processMessage(any(MessageDto.class), any(Map.class)))
+                .thenReturn(true);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> messageConsumer.receiveMessage(message));
+
+        // Verify
+        verify(messagePreValidator).validate(message);
+        verify(messageProcessingService).processMessage(eq(testMessageDto), eq(testHeaders));
+    }
+
     // TODO: 
     @Disabled
     @Test
@@ -1,8 +1,14 @@
 package com.example.rabbitmqconsumer.controller;
 
+import com.example.rabbitmqconsumer.dto.BulkPublishResult;
 import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.dto.ProcessedMessagePage;
 import com.example.rabbitmqconsumer.service.MessageProcessingService;
 import com.example.rabbitmqconsumer.service.MessagePublisherService;
+import com.example.rabbitmqconsumer.service.PublishRejectedException;
+import com.example.rabbitmqconsumer.stats.StatsCounts;
+import com.example.rabbitmqconsumer.stats.StatsKey;
+import com.example.rabbitmqconsumer.stats.StatsSnapshot;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.Disabled;
@@ -12,12 +18,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -57,6 +73,37 @@ class MessageControllerTest {
         verify(messagePublisherService).publishMessage(any(MessageDto.class));
     }
 
+    @Test
+    void testPublishWhileBrokerBlockedIsRejectedWithRetryAfter() throws Exception {
+        MessageDto messageDto = new MessageDto("id1", "Test message", "order");
+        doThrow(new PublishRejectedException(PublishRejectedException.Reason.BROKER_BLOCKED, Duration.ofSeconds(5),
+                "Broker is blocking publishers: low on memory"))
+                .when(messagePublisherService).publishMessage(any(MessageDto.class));
+
+        mockMvc.perform(post("/api/messages/publish")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(messageDto)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.status").value("error"))
+                .andExpect(jsonPath("$.reason").value("BROKER_BLOCKED"));
+    }
+
+    @Test
+    void testPublishOverInFlightLimitIsRejectedWithTooManyRequests() throws Exception {
+        MessageDto messageDto = new MessageDto("id1", "Test message", "order");
+        doThrow(new PublishRejectedException(PublishRejectedException.Reason.IN_FLIGHT_LIMIT, Duration.ofSeconds(2),
+                "64 publishes already in progress"))
+                .when(messagePublisherService).publishMessage(any(MessageDto.class));
+
+        mockMvc.perform(post("/api/messages/publish")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(messageDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.reason").value("IN_FLIGHT_LIMIT"));
+    }
+
     @Test
     void testPublishMessageWithValidationError() throws Exception {
         MessageDto messageDto = new MessageDto();
@@ -93,7 +140,8 @@ class MessageControllerTest {
 
     @Test
     void testPublishBulkMessages() throws Exception {
-        doNothing().when(messagePublisherService).publishMessage(any(MessageDto.class));
+        when(messagePublisherService.publishBatch(anyList()))
+                .thenReturn(new BulkPublishResult(5, 5_000_000L));
 
         mockMvc.perform(post("/api/messages/publish/bulk")
                 .param("count", "5")
@@ -102,14 +150,19 @@ class MessageControllerTest {
                 .andExpect(jsonPath("$.status").value("success"))
                 .andExpect(jsonPath("$.publishedCount").value(5))
                 .andExpect(jsonPath("$.type").value("payment"))
+                .andExpect(jsonPath("$.batchCount").value(1))
+                .andExpect(jsonPath("$.batches[0].publishedCount").value(5))
+                .andExpect(jsonPath("$.batches[0].messagesPerSecond").value(1000))
                 .andExpect(jsonPath("$.message").value("Bulk messages published successfully"));
 
-        verify(messagePublisherService, times(5)).publishMessage(any(MessageDto.class));
+        verify(messagePublisherService).publishBatch(argThat(batch -> batch.size() == 5));
+        verify(messagePublisherService, never()).publishMessage(any(MessageDto.class));
     }
 
     @Test
     void testPublishBulkMessagesWithDefaultParameters() throws Exception {
-        doNothing().when(messagePublisherService).publishMessage(any(MessageDto.class));
+        when(messagePublisherService.publishBatch(anyList()))
+                .thenReturn(new BulkPublishResult(10, 1_000_000L));
 
         mockMvc.perform(post("/api/messages/publish/bulk"))
                 .andExpect(status().isOk())
@@ -117,25 +170,48 @@ class MessageControllerTest {
                 .andExpect(jsonPath("$.publishedCount").value(10))
                 .andExpect(jsonPath("$.type").value("order"));
 
-        verify(messagePublisherService, times(10)).publishMessage(any(MessageDto.class));
+        verify(messagePublisherService).publishBatch(argThat(batch -> batch.size() == 10
+                && batch.stream().allMatch(message -> "order".equals(message.getType()))));
+    }
+
+    @Test
+    void testPublishBulkMessagesSplitsIntoBatches() throws Exception {
+        when(messagePublisherService.publishBatch(anyList()))
+                .thenAnswer(invocation -> new BulkPublishResult(
+                        invocation.<List<MessageDto>>getArgument(0).size(), 2_000_000L));
+
+        mockMvc.perform(post("/api/messages/publish/bulk")
+                .param("count", "2500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.publishedCount").value(2500))
+                .andExpect(jsonPath("$.batchCount").value(3))
+                .andExpect(jsonPath("$.batches[2].publishedCount").value(500))
+                .andExpect(jsonPath("$.durationMs").value(6));
+
+        verify(messagePublisherService, times(3)).publishBatch(anyList());
     }
 
     @Test
     void testGetMessageStats() throws Exception {
-        when(messageProcessingService.getProcessedCount()).thenReturn(15L);
-        when(messageProcessingService.getFailedCount()).thenReturn(2L);
-        when(messageProcessingService.getDeadLetterCount()).thenReturn(1L);
+        StatsSnapshot snapshot = new StatsSnapshot(2, Instant.now(), Instant.now(), Map.of(
+                new StatsKey("order", "web", "high"), new StatsCounts(10, 1, 1),
+                new StatsKey("order", "mobile", "normal"), new StatsCounts(3, 0, 0),
+                new StatsKey("payment", "web", "high"), new StatsCounts(2, 1, 0)));
+        when(messageProcessingService.getStats()).thenReturn(snapshot);
 
         mockMvc.perform(get("/api/messages/stats"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.processedCount").value(15))
                 .andExpect(jsonPath("$.failedCount").value(2))
                 .andExpect(jsonPath("$.deadLetterCount").value(1))
+                .andExpect(jsonPath("$.byType.order.processed").value(13))
+                .andExpect(jsonPath("$.byType.payment.failed").value(1))
+                .andExpect(jsonPath("$.bySource.web.processed").value(12))
+                .andExpect(jsonPath("$.byPriority.normal.processed").value(3))
+                .andExpect(jsonPath("$.epoch").value(2))
                 .andExpect(jsonPath("$.timestamp").exists());
 
-        verify(messageProcessingService).getProcessedCount();
-        verify(messageProcessingService).getFailedCount();
-        verify(messageProcessingService).getDeadLetterCount();
+        verify(messageProcessingService).getStats();
     }
 
     @Test
@@ -156,6 +232,61 @@ class MessageControllerTest {
         verify(messageProcessingService).getProcessedMessages();
     }
 
+    @Test
+    void testGetProcessedMessagesPage() throws Exception {
+        ProcessedMessagePage page = new ProcessedMessagePage(
+                List.of(new MessageDto("id1", "content1", "type1")), 42L, true);
+        when(messageProcessingService.getProcessedMessagesPage(7L, 1)).thenReturn(page);
+
+        mockMvc.perform(get("/api/messages/processed")
+                .param("cursor", "7")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages[0].id").value("id1"))
+                .andExpect(jsonPath("$.nextCursor").value(42))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        verify(messageProcessingService, never()).getProcessedMessages();
+    }
+
+    @Test
+    void testGetProcessedMessagesPageCapsLimit() throws Exception {
+        when(messageProcessingService.getProcessedMessagesPage(anyLong(), anyInt()))
+                .thenReturn(new ProcessedMessagePage(List.of(), 0L, false));
+
+        mockMvc.perform(get("/api/messages/processed")
+                .param("limit", "1000000"))
+                .andExpect(status().isOk());
+
+        verify(messageProcessingService).getProcessedMessagesPage(0L, 1000);
+    }
+
+    @Test
+    void testStreamProcessedMessagesAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            BiConsumer<Long, MessageDto> action = invocation.getArgument(1);
+            action.accept(1L, new MessageDto("id1", "content1", "type1"));
+            action.accept(2L, new MessageDto("id2", "content2", "type2"));
+            return null;
+        }).when(messageProcessingService).forEachProcessedMessage(eq(0L), any());
+
+        MvcResult result = mockMvc.perform(get("/api/messages/processed/stream")
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("id1", objectMapper.readValue(lines[0], MessageDto.class).getId());
+        assertEquals("id2", objectMapper.readValue(lines[1], MessageDto.class).getId());
+        verify(messageProcessingService, never()).getProcessedMessages();
+    }
+
     @Test
     void testClearProcessedMessages() throws Exception {
         doNothing().when(messageProcessingService).clearProcessedMessages();
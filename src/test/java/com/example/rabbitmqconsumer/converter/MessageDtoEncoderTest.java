@@ -0,0 +1,92 @@
+package com.example.rabbitmqconsumer.converter;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageDtoEncoderTest {
+
+    private MessageDto messageDto;
+
+    @BeforeEach
+    void setUp() {
+        messageDto = new MessageDto("id-1", "Order content", "order");
+        messageDto.setTimestamp(LocalDateTime.of(2025, 1, 1, 12, 30, 15));
+        messageDto.setSource("web");
+        messageDto.setMetadata(Map.of("customerId", 42));
+    }
+
+    @Test
+    void testJsonEncodingMatchesConverterOutput() {
+        Jackson2JsonMessageConverter jsonConverter = new Jackson2JsonMessageConverter();
+        Message expected = jsonConverter.toMessage(messageDto, new MessageProperties());
+
+        Message encoded = new MessageDtoEncoder("json").encode(messageDto);
+        MessageProperties properties = encoded.getMessageProperties();
+
+        assertEquals(expected.getMessageProperties().getContentType(), properties.getContentType());
+        assertEquals(expected.getMessageProperties().getContentEncoding(), properties.getContentEncoding());
+        assertEquals(MessageDto.class.getName(), properties.getHeader("__TypeId__"));
+        assertEquals("id-1", properties.getMessageId());
+        assertEquals("order", properties.getType());
+        assertEquals(encoded.getBody().length, properties.getContentLength());
+        assertEquals(messageDto, jsonConverter.fromMessage(encoded));
+    }
+
+    @Test
+    void testSmileEncodingIsReadableBySmileConverter() {
+        Message encoded = new MessageDtoEncoder("smile").encode(messageDto);
+
+        assertEquals(SmileMessageConverter.CONTENT_TYPE_SMILE, encoded.getMessageProperties().getContentType());
+        assertEquals(messageDto, new SmileMessageConverter().fromMessage(encoded));
+    }
+
+    @Test
+    void testReusedBufferDoesNotLeakBetweenMessages() {
+        MessageDtoEncoder encoder = new MessageDtoEncoder("json");
+        MessageDto large = new MessageDto("id-2", "x".repeat(100_000), "order");
+        Jackson2JsonMessageConverter jsonConverter = new Jackson2JsonMessageConverter();
+
+        Message first = encoder.encode(large);
+        Message second = encoder.encode(messageDto);
+        Message third = encoder.encode(messageDto);
+
+        assertTrue(second.getBody().length < first.getBody().length);
+        assertArrayEquals(second.getBody(), third.getBody());
+        assertNotSame(second.getBody(), third.getBody());
+        assertEquals(messageDto, jsonConverter.fromMessage(third));
+    }
+
+    @Test
+    void testConcurrentEncodingOnVirtualThreads() throws Exception {
+        MessageDtoEncoder encoder = new MessageDtoEncoder("json");
+        Jackson2JsonMessageConverter jsonConverter = new Jackson2JsonMessageConverter();
+        List<Future<Message>> encoded = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 500; i++) {
+                MessageDto message = new MessageDto("id-" + i, "content " + i, "order");
+                encoded.add(executor.submit(() -> encoder.encode(message)));
+            }
+        }
+
+        for (int i = 0; i < encoded.size(); i++) {
+            MessageDto decoded = (MessageDto) jsonConverter.fromMessage(encoded.get(i).get());
+            assertEquals("id-" + i, decoded.getId());
+            assertEquals("content " + i, decoded.getContent());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.rabbitmqconsumer.converter;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmileMessageConverterTest {
+
+    private MessageDto messageDto;
+
+    @BeforeEach
+    void setUp() {
+        messageDto = new MessageDto("id-1", "Order content", "order");
+        messageDto.setTimestamp(LocalDateTime.of(2025, 1, 1, 12, 30, 15));
+        messageDto.setSource("web");
+        messageDto.setMetadata(Map.of("customerId", 42, "channel", "web"));
+    }
+
+    @Test
+    void testSmileRoundTrip() {
+        SmileMessageConverter converter = new SmileMessageConverter();
+
+        Message message = converter.toMessage(messageDto, new MessageProperties());
+        MessageDto decoded = (MessageDto) converter.fromMessage(message);
+
+        assertEquals(SmileMessageConverter.CONTENT_TYPE_SMILE, message.getMessageProperties().getContentType());
+        assertEquals(messageDto, decoded);
+    }
+
+    @Test
+    void testSmileIsSmallerThanJson() {
+        byte[] json = new Jackson2JsonMessageConverter().toMessage(messageDto, new MessageProperties()).getBody();
+        byte[] smile = new SmileMessageConverter().toMessage(messageDto, new MessageProperties()).getBody();
+
+        assertTrue(smile.length < json.length, "smile=" + smile.length + " json=" + json.length);
+    }
+
+    @Test
+    void testSmileIsSmallerThanJsonForBenchmarkPayloads() {
+        // Same payloads as WireFormatBenchmark; json-streaming encodes through the JSON converter
+        for (int metadataEntries : new int[] {0, 10}) {
+            MessageDto payload = new MessageDto("3f6c1e0a-9b1d-4c55-8f7e-2a1b3c4d5e6f", "Order placed for customer 42", "order");
+            payload.setTimestamp(LocalDateTime.of(2025, 1, 1, 12, 0));
+            payload.setSource("web");
+            payload.setPriority("high");
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            for (int i = 0; i < metadataEntries; i++) {
+                metadata.put("key" + i, i % 2 == 0 ? "value" + i : i * 1000L);
+            }
+            payload.setMetadata(metadata);
+
+            byte[] json = new Jackson2JsonMessageConverter().toMessage(payload, new MessageProperties()).getBody();
+            byte[] streaming = new StreamingMessageDtoConverter(new Jackson2JsonMessageConverter())
+                    .toMessage(payload, new MessageProperties()).getBody();
+            byte[] smile = new SmileMessageConverter().toMessage(payload, new MessageProperties()).getBody();
+
+            assertEquals(json.length, streaming.length);
+            assertTrue(smile.length < json.length,
+                    "metadataEntries=" + metadataEntries + " smile=" + smile.length + " json=" + json.length);
+        }
+    }
+
+    @Test
+    void testNegotiatingConverterPublishesSmileAndStillReadsJson() {
+        Jackson2JsonMessageConverter jsonConverter = new Jackson2JsonMessageConverter();
+        SmileMessageConverter smileConverter = new SmileMessageConverter();
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(smileConverter);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, jsonConverter);
+        converter.addDelegate(SmileMessageConverter.CONTENT_TYPE_SMILE, smileConverter);
+
+        Message published = converter.toMessage(messageDto, new MessageProperties());
+        Message fromOldProducer = jsonConverter.toMessage(messageDto, new MessageProperties());
+        fromOldProducer.getMessageProperties().setInferredArgumentType(MessageDto.class);
+
+        assertEquals(SmileMessageConverter.CONTENT_TYPE_SMILE, published.getMessageProperties().getContentType());
+        assertEquals(messageDto, converter.fromMessage(published));
+        assertEquals(messageDto, converter.fromMessage(fromOldProducer));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.rabbitmqconsumer.converter;
+
+import com.example.rabbitmqconsumer.dto.LazyMessageDto;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingMessageDtoConverterTest {
+
+    private Jackson2JsonMessageConverter jsonConverter;
+    private StreamingMessageDtoConverter converter;
+    private MessageDto messageDto;
+
+    @BeforeEach
+    void setUp() {
+        jsonConverter = new Jackson2JsonMessageConverter();
+        converter = new StreamingMessageDtoConverter(jsonConverter);
+        messageDto = new MessageDto("id-1", "Order content", "order");
+        messageDto.setTimestamp(LocalDateTime.of(2025, 1, 1, 12, 30, 15));
+        messageDto.setSource("web");
+        messageDto.setPriority("high");
+        messageDto.setMetadata(Map.of("customerId", 42, "tags", Map.of("channel", "web")));
+    }
+
+    @Test
+    void testDecodesSameDtoAsJacksonWithLazyMetadata() {
+        Message message = converter.toMessage(messageDto, new MessageProperties());
+        message.getMessageProperties().setInferredArgumentType(MessageDto.class);
+
+        Object decoded = converter.fromMessage(message);
+
+        LazyMessageDto lazy = assertInstanceOf(LazyMessageDto.class, decoded);
+        assertFalse(lazy.isMetadataMaterialized());
+        assertEquals("id-1", lazy.getId());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 12, 30, 15), lazy.getTimestamp());
+        assertEquals(messageDto, lazy);
+        assertTrue(lazy.isMetadataMaterialized());
+        assertEquals(Map.of("channel", "web"), lazy.getMetadata().get("tags"));
+    }
+
+    @Test
+    void testConcurrentMetadataReadsDecodeOnce() throws Exception {
+        Message message = converter.toMessage(messageDto, new MessageProperties());
+        message.getMessageProperties().setInferredArgumentType(MessageDto.class);
+
+        for (int round = 0; round < 200; round++) {
+            LazyMessageDto lazy = (LazyMessageDto) converter.fromMessage(message);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Map<String, Object>>> reads = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+                for (int i = 0; i < 8; i++) {
+                    reads.add(executor.submit(() -> {
+                        start.await();
+                        return lazy.getMetadata();
+                    }));
+                }
+                start.countDown();
+                Map<String, Object> first = reads.get(0).get();
+                for (Future<Map<String, Object>> read : reads) {
+                    assertSame(first, read.get());
+                }
+                assertEquals(messageDto.getMetadata(), first);
+            }
+        }
+    }
+
+    @Test
+    void testTypeIdHeaderSelectsStreamingPathAndUnknownFieldsAreSkipped() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader("__TypeId__", MessageDto.class.getName());
+        String json = "{\"id\":\"id-2\",\"extra\":{\"nested\":[1,2]},\"content\":\"c\",\"type\":\"payment\","
+                + "\"timestamp\":null,\"metadata\":null,\"retryCount\":3}";
+
+        MessageDto decoded = (MessageDto) converter.fromMessage(new Message(json.getBytes(StandardCharsets.UTF_8), properties));
+
+        assertEquals("id-2", decoded.getId());
+        assertEquals("payment", decoded.getType());
+        assertNull(decoded.getTimestamp());
+        assertNull(decoded.getMetadata());
+        assertEquals(3, decoded.getRetryCount());
+    }
+
+    @Test
+    void testOtherTargetTypesAndUnusualBodiesFallBackToDelegate() {
+        Message map = jsonConverter.toMessage(Map.of("key", "value"), new MessageProperties());
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setInferredArgumentType(MessageDto.class);
+        Message isoTimestamp = new Message("{\"id\":\"id-3\",\"timestamp\":\"2025-01-01 12:30:15\",\"retryCount\":\"1\"}"
+                .getBytes(StandardCharsets.UTF_8), properties);
+
+        assertEquals(Map.of("key", "value"), converter.fromMessage(map));
+        assertEquals("id-3", ((MessageDto) converter.fromMessage(isoTimestamp)).getId());
+    }
+
+    @Test
+    void testMalformedJsonThrowsConversionException() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setInferredArgumentType(MessageDto.class);
+        Message message = new Message("{\"id\":\"id-4\",".getBytes(StandardCharsets.UTF_8), properties);
+
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(message));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.rabbitmqconsumer.dedup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateMessageFilterTest {
+
+    @Test
+    void testFirstDeliveryIsNotDuplicate() {
+        DuplicateMessageFilter filter = new DuplicateMessageFilter(true, Duration.ofMinutes(10), 1000, 0.01);
+
+        assertFalse(filter.isDuplicate("id1"));
+        assertEquals(1, filter.getUniqueCount());
+        assertEquals(0, filter.getDuplicateCount());
+    }
+
+    @Test
+    void testRedeliveryAfterProcessingIsDuplicate() {
+        DuplicateMessageFilter filter = new DuplicateMessageFilter(true, Duration.ofMinutes(10), 1000, 0.01);
+
+        filter.markProcessed("id1");
+
+        assertTrue(filter.isDuplicate("id1"));
+        assertFalse(filter.isDuplicate("id2"));
+        assertEquals(1, filter.getDuplicateCount());
+    }
+
+    @Test
+    void testIdsAreForgottenAfterRetention() {
+        AtomicLong nanos = new AtomicLong();
+        DuplicateMessageFilter filter = new DuplicateMessageFilter(true, Duration.ofMinutes(10), 1000, 0.01, nanos::get);
+        filter.markProcessed("id1");
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        assertTrue(filter.isDuplicate("id1"));
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(30));
+        assertFalse(filter.isDuplicate("id1"));
+    }
+
+    @Test
+    void testDisabledFilterNeverReportsDuplicates() {
+        DuplicateMessageFilter filter = new DuplicateMessageFilter(false, Duration.ofMinutes(10), 1000, 0.01);
+
+        filter.markProcessed("id1");
+
+        assertFalse(filter.isDuplicate("id1"));
+    }
+
+    @Test
+    void testNullIdIsNeverDuplicate() {
+        DuplicateMessageFilter filter = new DuplicateMessageFilter(true, Duration.ofMinutes(10), 1000, 0.01);
+
+        filter.markProcessed(null);
+
+        assertFalse(filter.isDuplicate(null));
+    }
+
+    @Test
+    void testBloomFilterFalsePositiveRateIsNearTarget() {
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.add("present-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloomFilter.mightContain("present-" + i));
+            if (bloomFilter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void testBindsHitAndMissCounters() {
+        DuplicateMessageFilter filter = new DuplicateMessageFilter(true, Duration.ofMinutes(10), 1000, 0.01);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+
+        filter.markProcessed("id1");
+        filter.isDuplicate("id1");
+        filter.isDuplicate("id2");
+
+        assertEquals(1.0, registry.get("messages.dedup.checks").tag("result", "duplicate").functionCounter().count());
+        assertEquals(1.0, registry.get("messages.dedup.checks").tag("result", "unique").functionCounter().count());
+    }
+}
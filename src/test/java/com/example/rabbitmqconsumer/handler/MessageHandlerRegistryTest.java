@@ -0,0 +1,102 @@
+package com.example.rabbitmqconsumer.handler;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageHandlerRegistryTest {
+
+    @Test
+    void testResolvesHandlersCaseInsensitively() {
+        MessageHandlerRegistry registry = createRegistry(new OrderMessageHandler(), new GenericMessageHandler());
+
+        assertInstanceOf(OrderMessageHandler.class, registry.resolve("order").getHandler());
+        assertInstanceOf(OrderMessageHandler.class, registry.resolve("ORDER").getHandler());
+        assertEquals("order", registry.resolve("Order").getType());
+    }
+
+    @Test
+    void testUnknownTypeFallsBackToGenericHandler() {
+        MessageHandlerRegistry registry = createRegistry(new OrderMessageHandler(), new GenericMessageHandler());
+
+        HandlerBinding binding = registry.resolve("unknown");
+
+        assertInstanceOf(GenericMessageHandler.class, binding.getHandler());
+        assertEquals(MessageHandlerRegistry.FALLBACK_TYPE, binding.getType());
+        assertEquals(Set.of("order"), registry.getRegisteredTypes());
+    }
+
+    @Test
+    void testMissingTypeIsRejected() {
+        MessageHandlerRegistry registry = createRegistry(new GenericMessageHandler());
+
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve(null));
+    }
+
+    @Test
+    void testRegistryRequiresFallbackHandler() {
+        assertThrows(IllegalStateException.class, () -> createRegistry(new OrderMessageHandler()));
+    }
+
+    @Test
+    void testDuplicateTypeRegistrationIsRejected() {
+        assertThrows(IllegalStateException.class,
+                () -> createRegistry(new OrderMessageHandler(), new OrderMessageHandler(), new GenericMessageHandler()));
+    }
+
+    @Test
+    void testSaturatedHandlerFailsAfterTimeout() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MessageHandler blocking = new MessageHandler() {
+            @Override
+            public Set<String> getSupportedTypes() {
+                return Set.of("slow");
+            }
+
+            @Override
+            public boolean handle(MessageDto messageDto) {
+                started.countDown();
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            @Override
+            public int getMaxConcurrency() {
+                return 1;
+            }
+
+            @Override
+            public Duration getPermitWaitTimeout() {
+                return Duration.ofMillis(50);
+            }
+        };
+        MessageHandlerRegistry registry = createRegistry(blocking, new GenericMessageHandler());
+        HandlerBinding binding = registry.resolve("slow");
+
+        Thread inFlight = new Thread(() -> binding.handle(new MessageDto("id1", "content", "slow")));
+        inFlight.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(HandlerSaturatedException.class, () -> binding.handle(new MessageDto("id2", "content", "slow")));
+
+        release.countDown();
+        inFlight.join();
+        assertTrue(binding.handle(new MessageDto("id3", "content", "slow")));
+    }
+
+    private MessageHandlerRegistry createRegistry(MessageHandler... handlers) {
+        return new MessageHandlerRegistry(List.of(handlers));
+    }
+}
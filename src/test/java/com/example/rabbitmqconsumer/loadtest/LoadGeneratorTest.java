@@ -0,0 +1,128 @@
+package com.example.rabbitmqconsumer.loadtest;
+
+import com.example.rabbitmqconsumer.dto.LoadTestRequest;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.service.MessagePublisherService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoadGeneratorTest {
+
+    @Mock
+    private MessagePublisherService messagePublisherService;
+
+    private LoadGenerator loadGenerator;
+
+    @BeforeEach
+    void setUp() {
+        loadGenerator = new LoadGenerator(messagePublisherService, Runnable::run);
+    }
+
+    @Test
+    void testRunPublishesAtRateAndReportsPercentiles() {
+        // Confirm and process every message as soon as it is published
+        when(messagePublisherService.publishMessageAsync(any(MessageDto.class))).thenAnswer(invocation -> {
+            MessageDto messageDto = invocation.getArgument(0);
+            loadGenerator.recordProcessed(messageDto);
+            return CompletableFuture.completedFuture(new CorrelationData(messageDto.getId()));
+        });
+
+        LoadTestRequest request = new LoadTestRequest();
+        request.setRate(200);
+        request.setDurationSeconds(1);
+        request.setTypeMix(Map.of("order", 3, "payment", 1));
+        request.setPayloadBytes(64);
+
+        LoadTestRun run = loadGenerator.start(request);
+
+        assertEquals(LoadTestRun.State.COMPLETED, run.getState());
+        assertEquals(200, run.getScheduled().get());
+        assertEquals(200, run.getPublished().get());
+        assertEquals(200, run.getProcessed().get());
+        assertEquals(0, run.getFailed().get());
+        assertEquals(200L, run.getPublishLatency().get("count"));
+        assertEquals(200L, run.getEndToEndLatency().get("count"));
+        assertTrue((double) run.getEndToEndLatency().get("p99Ms") <= (double) run.getEndToEndLatency().get("maxMs"));
+
+        ArgumentCaptor<MessageDto> captor = ArgumentCaptor.forClass(MessageDto.class);
+        verify(messagePublisherService, times(200)).publishMessageAsync(captor.capture());
+        List<MessageDto> published = captor.getAllValues();
+        assertTrue(published.stream().allMatch(m -> m.getContent().length() == 64
+                && LoadGenerator.SOURCE.equals(m.getSource())
+                && (m.getType().equals("order") || m.getType().equals("payment"))));
+        assertTrue(published.stream().filter(m -> m.getType().equals("order")).count() > 100);
+    }
+
+    @Test
+    void testFailedPublishesAreCountedAndNotAwaited() {
+        when(messagePublisherService.publishMessageAsync(any(MessageDto.class)))
+                .thenReturn(CompletableFuture.failedFuture(new AmqpException("nacked")));
+
+        LoadTestRequest request = new LoadTestRequest();
+        request.setRate(50);
+        request.setDurationSeconds(1);
+        request.setArrival("poisson");
+
+        LoadTestRun run = loadGenerator.start(request);
+
+        assertEquals(LoadTestRun.State.COMPLETED, run.getState());
+        assertTrue(run.getScheduled().get() > 0);
+        assertEquals(run.getScheduled().get(), run.getFailed().get());
+        assertEquals(0, run.getPublished().get());
+        assertEquals(0L, run.getEndToEndLatency().get("count"));
+    }
+
+    @Test
+    void testInvalidRequestIsRejected() {
+        LoadTestRequest request = new LoadTestRequest();
+        request.setRate(0);
+        assertThrows(IllegalArgumentException.class, () -> loadGenerator.start(request));
+
+        LoadTestRequest badArrival = new LoadTestRequest();
+        badArrival.setArrival("bursty");
+        assertThrows(IllegalArgumentException.class, () -> loadGenerator.start(badArrival));
+
+        assertNull(loadGenerator.getCurrentRun());
+        verifyNoInteractions(messagePublisherService);
+    }
+
+    @Test
+    void testPayloadMustLeaveRoomForEnvelopeWithinMaxBodyBytes() {
+        ReflectionTestUtils.setField(loadGenerator, "maxPayloadBytes", 1048576);
+        ReflectionTestUtils.setField(loadGenerator, "maxBodyBytes", 65536);
+
+        LoadTestRequest request = new LoadTestRequest();
+        request.setPayloadBytes(65536 - LoadGenerator.ENVELOPE_BYTES + 1);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> loadGenerator.start(request));
+        assertEquals("payloadBytes must be between 1 and " + (65536 - LoadGenerator.ENVELOPE_BYTES), e.getMessage());
+        verifyNoInteractions(messagePublisherService);
+    }
+
+    @Test
+    void testMessagesFromOtherSourcesAreIgnored() {
+        MessageDto messageDto = new MessageDto("1", "content", "order");
+        messageDto.setSource("api");
+
+        loadGenerator.recordProcessed(messageDto);
+        loadGenerator.recordProcessed(null);
+
+        assertNull(loadGenerator.getCurrentRun());
+    }
+}
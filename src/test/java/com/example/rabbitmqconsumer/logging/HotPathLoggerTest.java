@@ -0,0 +1,54 @@
+package com.example.rabbitmqconsumer.logging;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotPathLoggerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MessageDto messageDto;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        messageDto = new MessageDto("id-1", "Order content", "order");
+    }
+
+    @Test
+    void testSuccessesAreSampledAndFailuresAlwaysLogged() {
+        HotPathLogger hotPathLogger = new HotPathLogger(meterRegistry, 1_000_000);
+
+        for (int i = 0; i < 1000; i++) {
+            hotPathLogger.success("message.consumed", messageDto, 1_000);
+            hotPathLogger.failure("message.consume.failed", messageDto, new RuntimeException("boom"));
+        }
+
+        double logged = count("message.consumed", HotPathLogger.RESULT_LOGGED);
+        double sampledOut = count("message.consumed", HotPathLogger.RESULT_SAMPLED_OUT);
+        assertEquals(1000, logged + sampledOut);
+        assertTrue(sampledOut >= 990, "sampled out: " + sampledOut);
+        assertEquals(1000, count("message.consume.failed", HotPathLogger.RESULT_LOGGED));
+    }
+
+    @Test
+    void testSampleRateOfOneLogsEverySuccess() {
+        HotPathLogger hotPathLogger = new HotPathLogger(meterRegistry, 1);
+
+        for (int i = 0; i < 10; i++) {
+            hotPathLogger.success("message.consumed", messageDto, 1_000);
+        }
+        hotPathLogger.failure("message.process.failed", null, new IllegalStateException("no dto"));
+
+        assertEquals(10, count("message.consumed", HotPathLogger.RESULT_LOGGED));
+        assertNull(meterRegistry.find("logging.hotpath.events").tag("result", HotPathLogger.RESULT_SAMPLED_OUT).counter());
+        assertEquals(1, count("message.process.failed", HotPathLogger.RESULT_LOGGED));
+    }
+
+    private double count(String event, String result) {
+        return meterRegistry.get("logging.hotpath.events").tag("event", event).tag("result", result).counter().count();
+    }
+}
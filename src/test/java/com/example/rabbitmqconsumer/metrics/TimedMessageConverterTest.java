@@ -0,0 +1,69 @@
+package com.example.rabbitmqconsumer.metrics;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedMessageConverterTest {
+
+    private SimpleMeterRegistry registry;
+    private TimedMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        converter = new TimedMessageConverter(new Jackson2JsonMessageConverter());
+        converter.bindTo(registry);
+    }
+
+    @Test
+    void testDeserializationIsTimed() {
+        Message message = converter.toMessage(new MessageDto("timed-1", "content", "order"), new MessageProperties());
+        message.getMessageProperties().setInferredArgumentType(MessageDto.class);
+
+        MessageDto converted = (MessageDto) converter.fromMessage(message);
+
+        assertEquals("timed-1", converted.getId());
+        assertEquals(1, timer(MessagingMetrics.OUTCOME_SUCCESS).count());
+        assertEquals(0, timer(MessagingMetrics.OUTCOME_ERROR).count());
+    }
+
+    @Test
+    void testFailedDeserializationIsTimedAsError() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setInferredArgumentType(MessageDto.class);
+        Message message = new Message("{not json".getBytes(StandardCharsets.UTF_8), properties);
+
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(message));
+        assertEquals(1, timer(MessagingMetrics.OUTCOME_ERROR).count());
+    }
+
+    @Test
+    void testLatencyTimersPublishHistograms() {
+        MessagingMetrics metrics = new MessagingMetrics(registry);
+
+        metrics.recordProcess("order", MessagingMetrics.OUTCOME_SUCCESS, 2_000_000);
+        metrics.recordProcess("order", MessagingMetrics.OUTCOME_SUCCESS, 4_000_000);
+
+        Timer timer = registry.find(MessagingMetrics.PROCESS_TIMER).tags("type", "order").timer();
+        assertNotNull(timer);
+        assertEquals(2, timer.count());
+        assertTrue(timer.takeSnapshot().histogramCounts().length > 0);
+        assertEquals(3, timer.takeSnapshot().percentileValues().length);
+    }
+
+    private Timer timer(String outcome) {
+        return registry.get(MessagingMetrics.DESERIALIZE_TIMER).tag("outcome", outcome).timer();
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.rabbitmqconsumer.redrive;
+
+import com.example.rabbitmqconsumer.compression.CompressionMetrics;
+import com.example.rabbitmqconsumer.compression.DecompressingPostProcessor;
+import com.example.rabbitmqconsumer.compression.DeflateCompressionCodec;
+import com.example.rabbitmqconsumer.config.RetryProperties;
+import com.example.rabbitmqconsumer.converter.SmileMessageConverter;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.dto.RedriveRequest;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import com.rabbitmq.client.Return;
+import com.rabbitmq.client.ReturnCallback;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DlqRedriveServiceTest {
+
+    private static final String DLQ = "dlq.message.queue";
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private Channel channel;
+
+    @Mock
+    private AMQP.Queue.DeclareOk declareOk;
+
+    private DlqRedriveService redriveService;
+
+    private DeflateCompressionCodec deflate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ContentTypeDelegatingMessageConverter messageConverter =
+                new ContentTypeDelegatingMessageConverter(new Jackson2JsonMessageConverter());
+        messageConverter.addDelegate(SmileMessageConverter.CONTENT_TYPE_SMILE, new SmileMessageConverter());
+        deflate = new DeflateCompressionCodec(6);
+        DecompressingPostProcessor decompressingPostProcessor = new DecompressingPostProcessor(List.of(deflate),
+                new CompressionMetrics(new SimpleMeterRegistry()), 1024 * 1024);
+        redriveService = new DlqRedriveService(rabbitTemplate, messageConverter, decompressingPostProcessor, Runnable::run);
+        ReflectionTestUtils.setField(redriveService, "exchangeName", "message.exchange");
+        ReflectionTestUtils.setField(redriveService, "routingKey", "message.routing.key");
+        ReflectionTestUtils.setField(redriveService, "queueName", "message.queue");
+        ReflectionTestUtils.setField(redriveService, "defaultBatchSize", 10);
+        ReflectionTestUtils.setField(redriveService, "defaultRate", 100_000);
+        ReflectionTestUtils.setField(redriveService, "confirmTimeout", 1000L);
+
+        when(rabbitTemplate.execute(any())).thenAnswer(invocation ->
+                ((ChannelCallback<?>) invocation.getArgument(0)).doInRabbit(channel));
+        when(channel.queueDeclarePassive(DLQ)).thenReturn(declareOk);
+    }
+
+    @Test
+    void testRedrivesMatchingMessagesWithOriginalRoutingKey() throws Exception {
+        when(declareOk.getMessageCount()).thenReturn(3);
+        when(channel.basicGet(DLQ, false)).thenReturn(
+                deadLetter(1, "order", "rejected", "order"),
+                deadLetter(2, "payment", "rejected", "payment"),
+                deadLetter(3, "order", "expired", "message.routing.key"),
+                null);
+
+        RedriveRequest request = new RedriveRequest();
+        request.setTypes(List.of("ORDER"));
+        RedriveJob job = redriveService.start(request);
+
+        assertEquals(RedriveJob.State.COMPLETED, job.getState());
+        assertEquals(3, job.getScanned().get());
+        assertEquals(2, job.getRedriven().get());
+        assertEquals(1, job.getSkipped().get());
+        verify(channel).basicPublish(eq("message.exchange"), eq("order"), eq(true), any(), any());
+        verify(channel).basicPublish(eq("message.exchange"), eq("message.routing.key"), eq(true), any(), any());
+        // The non-matching message goes back to the tail of the DLQ
+        verify(channel).basicPublish(eq(""), eq(DLQ), eq(false), any(), any());
+        verify(channel).waitForConfirmsOrDie(1000L);
+        verify(channel).basicAck(3L, true);
+    }
+
+    @Test
+    void testFiltersByDeathReasonAndResetsRetryCount() throws Exception {
+        when(declareOk.getMessageCount()).thenReturn(2);
+        when(channel.basicGet(DLQ, false)).thenReturn(
+                deadLetter(1, "order", "rejected", "order"),
+                deadLetter(2, "order", "expired", "order"));
+
+        RedriveRequest request = new RedriveRequest();
+        request.setReasons(List.of("expired"));
+        request.setFrom(Instant.now().minusSeconds(3600));
+        RedriveJob job = redriveService.start(request);
+
+        assertEquals(1, job.getRedriven().get());
+        ArgumentCaptor<AMQP.BasicProperties> properties = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+        verify(channel).basicPublish(eq("message.exchange"), eq("order"), eq(true), properties.capture(), any());
+        assertFalse(properties.getValue().getHeaders().containsKey(RetryProperties.RETRY_COUNT_HEADER));
+        assertTrue(properties.getValue().getHeaders().containsKey(DlqRedriveService.REDRIVEN_AT_HEADER));
+    }
+
+    @Test
+    void testStopsAtMaxMessages() throws Exception {
+        when(declareOk.getMessageCount()).thenReturn(5);
+        when(channel.basicGet(DLQ, false)).thenReturn(
+                deadLetter(1, "order", "rejected", "order"),
+                deadLetter(2, "order", "rejected", "order"));
+
+        RedriveRequest request = new RedriveRequest();
+        request.setMaxMessages(2L);
+        RedriveJob job = redriveService.start(request);
+
+        assertEquals(RedriveJob.State.COMPLETED, job.getState());
+        assertEquals(2, job.getRedriven().get());
+        verify(channel, times(2)).basicGet(DLQ, false);
+    }
+
+    @Test
+    void testFailedConfirmRequeuesTheBatch() throws Exception {
+        when(declareOk.getMessageCount()).thenReturn(1);
+        when(channel.basicGet(DLQ, false)).thenReturn(deadLetter(7, "order", "rejected", "order"));
+        doThrow(new TimeoutException("no confirm")).when(channel).waitForConfirmsOrDie(anyLong());
+
+        RedriveJob job = redriveService.start(new RedriveRequest());
+
+        assertEquals(RedriveJob.State.FAILED, job.getState());
+        assertEquals(0, job.getRedriven().get());
+        verify(channel).basicNack(7L, true, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void testEmptyDeadLetterQueueCompletesImmediately() throws Exception {
+        when(declareOk.getMessageCount()).thenReturn(0);
+
+        RedriveJob job = redriveService.start(new RedriveRequest());
+
+        assertEquals(RedriveJob.State.COMPLETED, job.getState());
+        assertEquals(1.0, job.getProgress());
+        verify(channel, never()).basicPublish(anyString(), anyString(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    void testUnroutableMessageIsPutBackOnTheDeadLetterQueue() throws Exception {
+        when(declareOk.getMessageCount()).thenReturn(2);
+        when(channel.basicGet(DLQ, false)).thenReturn(
+                deadLetter(1, "order", "rejected", "order"),
+                deadLetter(2, "user", "rejected", "message.queue.user"),
+                null);
+        ArgumentCaptor<ReturnCallback> returnCallback = ArgumentCaptor.forClass(ReturnCallback.class);
+        when(channel.addReturnListener(returnCallback.capture())).thenReturn(null);
+        // The broker returns the publish to the stale typed-queue routing key before confirming the batch
+        doAnswer(invocation -> {
+            returnCallback.getValue().handle(new Return(312, "NO_ROUTE", "message.exchange", "message.queue.user",
+                    new AMQP.BasicProperties.Builder().messageId("2").build(), new byte[]{2}));
+            return null;
+        }).doNothing().when(channel).waitForConfirmsOrDie(anyLong());
+
+        RedriveJob job = redriveService.start(new RedriveRequest());
+
+        assertEquals(RedriveJob.State.COMPLETED, job.getState());
+        assertEquals(2, job.getScanned().get());
+        assertEquals(1, job.getRedriven().get());
+        assertEquals(1, job.getFailed().get());
+        verify(channel).basicPublish(eq(""), eq(DLQ), eq(false), any(), eq(new byte[]{2}));
+        // The DLQ copy is confirmed before the original deliveries are acked
+        verify(channel, times(2)).waitForConfirmsOrDie(1000L);
+        verify(channel).basicAck(2L, true);
+    }
+
+    @Test
+    void testTypeFilterReadsCompressedAndSmileBodies() throws Exception {
+        MessageDto order = new MessageDto("1", "c", "order");
+        MessageProperties deflatedJson = new MessageProperties();
+        byte[] json = new Jackson2JsonMessageConverter().toMessage(order, deflatedJson).getBody();
+        MessageProperties smile = new MessageProperties();
+        byte[] smileBody = new SmileMessageConverter().toMessage(order, smile).getBody();
+        when(declareOk.getMessageCount()).thenReturn(3);
+        when(channel.basicGet(DLQ, false)).thenReturn(
+                untypedDeadLetter(1, "application/json", "deflate:UTF-8", deflate.compress(json)),
+                untypedDeadLetter(2, SmileMessageConverter.CONTENT_TYPE_SMILE, null, smileBody),
+                untypedDeadLetter(3, "application/json", "deflate", new byte[]{1, 2, 3}));
+
+        RedriveRequest request = new RedriveRequest();
+        request.setTypes(List.of("order"));
+        RedriveJob job = redriveService.start(request);
+
+        assertEquals(2, job.getRedriven().get());
+        // An undecodable body does not match and stays in the DLQ
+        assertEquals(1, job.getSkipped().get());
+        verify(channel, times(2)).basicPublish(eq("message.exchange"), eq("order"), eq(true), any(), any());
+    }
+
+    private GetResponse untypedDeadLetter(long deliveryTag, String contentType, String contentEncoding, byte[] body) {
+        Map<String, Object> death = Map.of("reason", "rejected", "queue", "message.queue", "time", new Date(),
+                "routing-keys", List.of("order"));
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .contentType(contentType)
+                .contentEncoding(contentEncoding)
+                .headers(Map.of("x-death", List.of(death)))
+                .build();
+        return new GetResponse(new Envelope(deliveryTag, false, "dlx.message.exchange", "message.routing.key"),
+                properties, body, 0);
+    }
+
+    private GetResponse deadLetter(long deliveryTag, String type, String reason, String originalRoutingKey) {
+        Map<String, Object> death = Map.of(
+                "reason", reason,
+                "queue", "message.queue",
+                "time", new Date(),
+                "routing-keys", List.of(originalRoutingKey));
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .contentType("application/json")
+                .headers(Map.of("x-death", List.of(death), RetryProperties.RETRY_COUNT_HEADER, 3))
+                .build();
+        byte[] body = ("{\"id\":\"" + deliveryTag + "\",\"content\":\"c\",\"type\":\"" + type + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        return new GetResponse(new Envelope(deliveryTag, false, "dlx.message.exchange", "message.routing.key"),
+                properties, body, 0);
+    }
+}
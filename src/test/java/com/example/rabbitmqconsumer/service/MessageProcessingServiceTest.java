@@ -1,15 +1,35 @@
 package com.example.rabbitmqconsumer.service;
 
+import com.example.rabbitmqconsumer.dedup.DuplicateMessageFilter;
 import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.handler.GenericMessageHandler;
+import com.example.rabbitmqconsumer.handler.HandlerSaturatedException;
+import com.example.rabbitmqconsumer.handler.MessageHandler;
+import com.example.rabbitmqconsumer.handler.MessageHandlerRegistry;
+import com.example.rabbitmqconsumer.handler.NotificationMessageHandler;
+import com.example.rabbitmqconsumer.handler.OrderMessageHandler;
+import com.example.rabbitmqconsumer.handler.PaymentMessageHandler;
+import com.example.rabbitmqconsumer.handler.UserMessageHandler;
+import com.example.rabbitmqconsumer.logging.HotPathLogger;
+import com.example.rabbitmqconsumer.metrics.MessagingMetrics;
+import com.example.rabbitmqconsumer.stats.MessageStats;
+import com.example.rabbitmqconsumer.store.CaffeineProcessedMessageStore;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,10 +37,62 @@ import static org.junit.jupiter.api.Assertions.*;
 class MessageProcessingServiceTest {
 
     private MessageProcessingService messageProcessingService;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
-        messageProcessingService = new MessageProcessingService();
+        meterRegistry = new SimpleMeterRegistry();
+        messageProcessingService = new MessageProcessingService(
+                new CaffeineProcessedMessageStore(1000, Duration.ofHours(1)),
+                new DuplicateMessageFilter(true, Duration.ofMinutes(10), 1000, 0.01),
+                new MessageHandlerRegistry(List.of(
+                        new OrderMessageHandler(),
+                        new PaymentMessageHandler(),
+                        new NotificationMessageHandler(),
+                        new UserMessageHandler(),
+                        new GenericMessageHandler())),
+                new MessagingMetrics(meterRegistry),
+                new MessageStats(1000),
+                new HotPathLogger(meterRegistry, 1));
+    }
+
+    @Test
+    void testProcessingTimeIsRecordedPerTypeAndOutcome() {
+        // Given
+        MessageDto order = new MessageDto("order-timed", "Order content", "ORDER");
+        MessageDto declined = new MessageDto("payment-timed", "Payment declined", "payment");
+
+        // When
+        messageProcessingService.processMessage(order, new HashMap<>());
+        messageProcessingService.processMessage(declined, new HashMap<>());
+
+        // Then
+        Timer success = meterRegistry.find(MessagingMetrics.PROCESS_TIMER)
+                .tags("type", "order", "outcome", MessagingMetrics.OUTCOME_SUCCESS).timer();
+        Timer failure = meterRegistry.find(MessagingMetrics.PROCESS_TIMER)
+                .tags("type", "payment", "outcome", MessagingMetrics.OUTCOME_ERROR).timer();
+        assertNotNull(success);
+        assertEquals(1, success.count());
+        assertTrue(success.totalTime(TimeUnit.MILLISECONDS) >= 400);
+        assertNotNull(failure);
+        assertEquals(1, failure.count());
+    }
+
+    @Test
+    void testQueueWaitIsRecordedPerCanonicalType() {
+        // When
+        messageProcessingService.recordQueueWait(new MessageDto("wait-1", "content", "ORDER"), TimeUnit.MILLISECONDS.toNanos(30));
+        messageProcessingService.recordQueueWait(new MessageDto("wait-2", "content", "order"), TimeUnit.MILLISECONDS.toNanos(10));
+        messageProcessingService.recordQueueWait(new MessageDto("wait-3", "content", null), TimeUnit.MILLISECONDS.toNanos(5));
+
+        // Then
+        Timer order = meterRegistry.find(MessagingMetrics.QUEUE_WAIT_TIMER).tags("type", "order").timer();
+        Timer unknown = meterRegistry.find(MessagingMetrics.QUEUE_WAIT_TIMER).tags("type", MessagingMetrics.UNKNOWN).timer();
+        assertNotNull(order);
+        assertEquals(2, order.count());
+        assertEquals(40, order.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertNotNull(unknown);
+        assertEquals(1, unknown.count());
     }
 
     @Test
@@ -139,6 +211,62 @@ class MessageProcessingServiceTest {
         assertEquals(3, messageProcessingService.getProcessedMessages().size());
     }
 
+    @Test
+    void testProcessBatchReturnsResultPerElement() {
+        MessageDto message1 = createTestMessage("notification", "Valid notification 1");
+        MessageDto message2 = createTestMessage(null, "Message without type");
+        MessageDto message3 = createTestMessage("notification", "Valid notification 2");
+
+        List<Boolean> results = messageProcessingService.processBatch(List.of(message1, message2, message3));
+
+        assertEquals(List.of(true, false, true), results);
+        assertEquals(2, messageProcessingService.getProcessedCount());
+        assertEquals(1, messageProcessingService.getFailedCount());
+        assertTrue(messageProcessingService.getProcessedMessages().containsKey(message1.getId()));
+        assertFalse(messageProcessingService.getProcessedMessages().containsKey(message2.getId()));
+        assertTrue(messageProcessingService.getProcessedMessages().containsKey(message3.getId()));
+    }
+
+    @Test
+    void testProcessBatchMixesBatchAndSingleHandlers() {
+        MessageDto notification1 = createTestMessage("notification", "Valid notification 1");
+        MessageDto user = createTestMessage("user", "Valid user data");
+        MessageDto notification2 = createTestMessage("Notification", "Valid notification 2");
+
+        List<Boolean> results = messageProcessingService.processBatch(List.of(notification1, user, notification2));
+
+        assertEquals(List.of(true, true, true), results);
+        assertEquals(3, messageProcessingService.getProcessedCount());
+        assertEquals(3, messageProcessingService.getProcessedMessages().size());
+    }
+
+    @Test
+    void testDuplicateDeliveryIsSkipped() {
+        MessageDto message = createTestMessage("notification", "Valid notification");
+        Map<String, Object> headers = new HashMap<>();
+
+        boolean first = messageProcessingService.processMessage(message, headers);
+        boolean redelivery = messageProcessingService.processMessage(message, headers);
+
+        assertTrue(first);
+        assertTrue(redelivery);
+        assertEquals(1, messageProcessingService.getProcessedCount());
+    }
+
+    @Test
+    void testFailedMessageIsNotRecordedAsDuplicate() {
+        MessageDto message = createTestMessage(null, "Message without type");
+        Map<String, Object> headers = new HashMap<>();
+
+        messageProcessingService.processMessage(message, headers);
+        message.setType("notification");
+        boolean retry = messageProcessingService.processMessage(message, headers);
+
+        assertTrue(retry);
+        assertEquals(1, messageProcessingService.getProcessedCount());
+        assertEquals(1, messageProcessingService.getFailedCount());
+    }
+
     @Test
     void testHandleDeadLetterMessage() {
         MessageDto deadLetterMessage = createTestMessage("order", "Failed message");
@@ -149,7 +277,17 @@ class MessageProcessingServiceTest {
             messageProcessingService.handleDeadLetterMessage(deadLetterMessage, headers);
         });
 
-        assertEquals(1, messageProcessingService.getDeadLetterCount());
+        // Counted when it was rejected, not again when the DLQ listener consumes it
+        assertEquals(0, messageProcessingService.getDeadLetterCount());
+    }
+
+    @Test
+    void testRecordDeadLetteredCountsRejectedMessages() {
+        messageProcessingService.recordDeadLettered(createTestMessage("order", "Failed message"));
+        messageProcessingService.recordDeadLettered(null);
+
+        assertEquals(2, messageProcessingService.getDeadLetterCount());
+        assertEquals(1, messageProcessingService.getStats().byType().get("order").deadLetter());
     }
 
     @Test
@@ -225,6 +363,63 @@ class MessageProcessingServiceTest {
         assertEquals(numberOfThreads * messagesPerThread, messageProcessingService.getProcessedMessages().size());
     }
 
+    @Test
+    void testSaturatedHandlerIsNotCountedAsFailure() throws Exception {
+        // Given - a handler with one slot, held by another thread
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MessageHandler slow = new MessageHandler() {
+            @Override
+            public Set<String> getSupportedTypes() {
+                return Set.of("slow");
+            }
+
+            @Override
+            public boolean handle(MessageDto messageDto) {
+                started.countDown();
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+
+            @Override
+            public int getMaxConcurrency() {
+                return 1;
+            }
+
+            @Override
+            public Duration getPermitWaitTimeout() {
+                return Duration.ofMillis(20);
+            }
+        };
+        MessageProcessingService service = new MessageProcessingService(
+                new CaffeineProcessedMessageStore(1000, Duration.ofHours(1)),
+                new DuplicateMessageFilter(true, Duration.ofMinutes(10), 1000, 0.01),
+                new MessageHandlerRegistry(List.of(slow, new GenericMessageHandler())),
+                new MessagingMetrics(meterRegistry),
+                new MessageStats(1000),
+                new HotPathLogger(meterRegistry, 1));
+        Thread inFlight = new Thread(() -> service.processMessage(new MessageDto("slow-1", "content", "slow"), new HashMap<>()));
+        inFlight.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When / Then - rejected as saturated, and the batch path reports it as null (requeue)
+        assertThrows(HandlerSaturatedException.class,
+                () -> service.processMessage(new MessageDto("slow-2", "content", "slow"), new HashMap<>()));
+        List<Boolean> results = service.processBatch(List.of(
+                new MessageDto("slow-3", "content", "slow"), new MessageDto("generic-1", "content", "other")));
+        assertNull(results.get(0));
+        assertTrue(results.get(1));
+        assertEquals(0, service.getFailedCount());
+
+        release.countDown();
+        inFlight.join();
+        assertEquals(0, service.getFailedCount());
+    }
+
     private MessageDto createTestMessage(String type, String content) {
         MessageDto message = new MessageDto();
         message.setId("test-id-" + System.currentTimeMillis() + "-" + Math.random());
@@ -1,17 +1,33 @@
 package com.example.rabbitmqconsumer.service;
 
+import com.example.rabbitmqconsumer.config.TypedQueueProperties;
+import com.example.rabbitmqconsumer.converter.MessageDtoEncoder;
+import com.example.rabbitmqconsumer.dto.BulkPublishResult;
 import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.metrics.MessagingMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionBlockedEvent;
+import org.springframework.amqp.rabbit.connection.ConnectionUnblockedEvent;
 import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -22,6 +38,15 @@ class MessagePublisherServiceTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
+    @Spy
+    private TypedQueueProperties typedQueueProperties = new TypedQueueProperties();
+
+    @Mock
+    private MessagingMetrics messagingMetrics;
+
+    @Spy
+    private MessageDtoEncoder messageDtoEncoder = new MessageDtoEncoder("json");
+
     @InjectMocks
     private MessagePublisherService messagePublisherService;
 
@@ -33,6 +58,9 @@ class MessagePublisherServiceTest {
         // Set the properties using reflection since they're injected via @Value
         ReflectionTestUtils.setField(messagePublisherService, "exchangeName", TEST_EXCHANGE);
         ReflectionTestUtils.setField(messagePublisherService, "routingKey", TEST_ROUTING_KEY);
+        ReflectionTestUtils.setField(messagePublisherService, "confirmWindow", 2);
+        ReflectionTestUtils.setField(messagePublisherService, "confirmTimeout", 1000L);
+        ReflectionTestUtils.invokeMethod(messagePublisherService, "initPublishLimits");
     }
 
     @Test
@@ -44,21 +72,28 @@ class MessagePublisherServiceTest {
         messagePublisherService.publishMessage(messageDto);
         
         // Assert
-        verify(rabbitTemplate, times(1)).convertAndSend(TEST_EXCHANGE, TEST_ROUTING_KEY, messageDto);
+        verify(messageDtoEncoder, times(1)).encode(messageDto);
+        verify(rabbitTemplate, times(1)).send(eq(TEST_EXCHANGE), eq(TEST_ROUTING_KEY), any(Message.class));
     }
 
     @Test
     void publishMessage_ShouldCaptureCorrectMessageData() {
         // Arrange
         MessageDto messageDto = new MessageDto("id1", "Hello RabbitMQ", "John Doe");
-        ArgumentCaptor<MessageDto> messageCaptor = ArgumentCaptor.forClass(MessageDto.class);
+        ArgumentCaptor<Message> messageCaptor = ArgumentCaptor.forClass(Message.class);
         
         // Act
         messagePublisherService.publishMessage(messageDto);
         
         // Assert
-        verify(rabbitTemplate).convertAndSend(eq(TEST_EXCHANGE), eq(TEST_ROUTING_KEY), messageCaptor.capture());
-        MessageDto capturedMessage = messageCaptor.getValue();
+        verify(rabbitTemplate).send(eq(TEST_EXCHANGE), eq(TEST_ROUTING_KEY), messageCaptor.capture());
+        assertEquals("id1", messageCaptor.getValue().getMessageProperties().getMessageId());
+        Object publishedAt = messageCaptor.getValue().getMessageProperties().getHeaders()
+                .get(MessagePublisherService.PUBLISHED_AT_HEADER);
+        assertInstanceOf(Long.class, publishedAt);
+        assertTrue(Math.abs(MessagePublisherService.currentTimeMicros() - (Long) publishedAt) < 10_000_000);
+        messageCaptor.getValue().getMessageProperties().setInferredArgumentType(MessageDto.class);
+        MessageDto capturedMessage = (MessageDto) new Jackson2JsonMessageConverter().fromMessage(messageCaptor.getValue());
         
         assertEquals("Hello RabbitMQ", capturedMessage.getContent());
         assertEquals("John Doe", capturedMessage.getType());
@@ -70,7 +105,7 @@ class MessagePublisherServiceTest {
         // Arrange
         MessageDto messageDto = new MessageDto("id1", "Test message", "Test sender");
         doThrow(new RuntimeException("Connection failed"))
-                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class));
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
         
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -81,4 +116,207 @@ class MessagePublisherServiceTest {
         assertEquals("Connection failed", exception.getCause().getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    void publishMessage_ShouldBeRejected_WhileBrokerIsBlocked() {
+        // Arrange
+        Connection connection = mock(Connection.class);
+        when(connection.isOpen()).thenReturn(true);
+        messagePublisherService.onConnectionBlocked(new ConnectionBlockedEvent(connection, "low on memory"));
+
+        // Act & Assert
+        PublishRejectedException exception = assertThrows(PublishRejectedException.class,
+                () -> messagePublisherService.publishMessage(new MessageDto("id1", "Test message", "order")));
+        assertEquals(PublishRejectedException.Reason.BROKER_BLOCKED, exception.getReason());
+        assertThrows(PublishRejectedException.class,
+                () -> messagePublisherService.publishMessageAsync(new MessageDto("id2", "Test message", "order")));
+        verifyNoInteractions(rabbitTemplate);
+        verify(messagingMetrics, times(2)).recordPublishRejected("broker_blocked");
+
+        // Publishing resumes once the broker unblocks the connection
+        messagePublisherService.onConnectionUnblocked(new ConnectionUnblockedEvent(connection));
+        messagePublisherService.publishMessage(new MessageDto("id3", "Test message", "order"));
+        verify(rabbitTemplate).send(eq(TEST_EXCHANGE), eq(TEST_ROUTING_KEY), any(Message.class));
+    }
+
+    @Test
+    void isBrokerBlocked_ShouldIgnoreConnectionsClosedWhileBlocked() {
+        // Arrange
+        Connection connection = mock(Connection.class);
+        when(connection.isOpen()).thenReturn(false);
+
+        // Act
+        messagePublisherService.onConnectionBlocked(new ConnectionBlockedEvent(connection, "low on memory"));
+
+        // Assert
+        assertFalse(messagePublisherService.isBrokerBlocked());
+    }
+
+    @Test
+    void publishMessage_ShouldBeRejected_WhenInFlightLimitIsReached() {
+        // Arrange - one publish at a time; a second one starts while the first is still in send()
+        ReflectionTestUtils.setField(messagePublisherService, "maxInFlight", 1);
+        ReflectionTestUtils.invokeMethod(messagePublisherService, "initPublishLimits");
+        AtomicReference<PublishRejectedException> nested = new AtomicReference<>();
+        doAnswer(invocation -> {
+            nested.set(assertThrows(PublishRejectedException.class,
+                    () -> messagePublisherService.publishMessage(new MessageDto("id2", "Test message", "order"))));
+            return null;
+        }).doNothing().when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+
+        // Act
+        messagePublisherService.publishMessage(new MessageDto("id1", "Test message", "order"));
+
+        // Assert - the slot is released afterwards
+        assertEquals(PublishRejectedException.Reason.IN_FLIGHT_LIMIT, nested.get().getReason());
+        messagePublisherService.publishMessage(new MessageDto("id3", "Test message", "order"));
+        verify(rabbitTemplate, times(2)).send(anyString(), anyString(), any(Message.class));
+    }
+
+    @Test
+    void publishMessage_ShouldBeRejected_WhenConfirmWindowIsFull() {
+        // Arrange - window of 2, neither confirm arrives yet
+        messagePublisherService.publishMessageAsync(new MessageDto("id1", "Test message", "order"));
+        messagePublisherService.publishMessageAsync(new MessageDto("id2", "Test message", "order"));
+
+        // Act & Assert
+        PublishRejectedException exception = assertThrows(PublishRejectedException.class,
+                () -> messagePublisherService.publishMessage(new MessageDto("id3", "Test message", "order")));
+        assertEquals(PublishRejectedException.Reason.CONFIRM_WINDOW_FULL, exception.getReason());
+        assertEquals(5, exception.getRetryAfter().toSeconds());
+    }
+
+    @Test
+    void publishMessageAsync_ShouldCompleteWhenBrokerAcks() throws Exception {
+        // Arrange
+        MessageDto messageDto = new MessageDto("id1", "Test message", "order");
+        ArgumentCaptor<CorrelationData> correlationCaptor = ArgumentCaptor.forClass(CorrelationData.class);
+
+        // Act
+        CompletableFuture<CorrelationData> future = messagePublisherService.publishMessageAsync(messageDto);
+
+        // Assert
+        verify(rabbitTemplate).send(eq(TEST_EXCHANGE), eq(TEST_ROUTING_KEY), any(Message.class), correlationCaptor.capture());
+        CorrelationData correlationData = correlationCaptor.getValue();
+        assertEquals("id1", correlationData.getId());
+        assertFalse(future.isDone());
+        assertEquals(1, messagePublisherService.getOutstandingConfirms());
+
+        correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        assertSame(correlationData, future.get());
+        assertEquals(0, messagePublisherService.getOutstandingConfirms());
+    }
+
+    @Test
+    void publishMessageAsync_ShouldFailWhenBrokerNacks() {
+        // Arrange
+        MessageDto messageDto = new MessageDto("id1", "Test message", "order");
+        ArgumentCaptor<CorrelationData> correlationCaptor = ArgumentCaptor.forClass(CorrelationData.class);
+
+        // Act
+        CompletableFuture<CorrelationData> future = messagePublisherService.publishMessageAsync(messageDto);
+        verify(rabbitTemplate).send(anyString(), anyString(), any(Message.class), correlationCaptor.capture());
+        correlationCaptor.getValue().getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertTrue(exception.getCause().getMessage().contains("queue full"));
+        assertEquals(0, messagePublisherService.getOutstandingConfirms());
+    }
+
+    @Test
+    void publishMessageAsync_ShouldFailFastAndReleaseSlot_WhenSendThrows() {
+        // Arrange
+        MessageDto messageDto = new MessageDto("id1", "Test message", "order");
+        doThrow(new RuntimeException("Connection failed"))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        CompletableFuture<CorrelationData> future = messagePublisherService.publishMessageAsync(messageDto);
+
+        // Assert
+        assertTrue(future.isCompletedExceptionally());
+        assertEquals(0, messagePublisherService.getOutstandingConfirms());
+    }
+
+    @Test
+    void publishMessageAsync_ShouldRejectImmediately_WhenConfirmWindowIsFull() {
+        // Arrange - window of 2, neither confirm ever arrives; the confirm timeout is 1s
+        messagePublisherService.publishMessageAsync(new MessageDto("id1", "Test message", "order"));
+        messagePublisherService.publishMessageAsync(new MessageDto("id2", "Test message", "order"));
+
+        // Act & Assert
+        long start = System.nanoTime();
+        PublishRejectedException exception = assertThrows(PublishRejectedException.class, () ->
+                messagePublisherService.publishMessageAsync(new MessageDto("id3", "Test message", "order")));
+        assertTrue(System.nanoTime() - start < 500_000_000L, "must not wait for a confirm slot");
+        assertEquals(PublishRejectedException.Reason.CONFIRM_WINDOW_FULL, exception.getReason());
+        verify(messagingMetrics).recordPublishRejected("confirm_window_full");
+        verify(rabbitTemplate, times(2)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void publishBatch_ShouldPublishAllMessagesOnOneChannelAndWaitForConfirmsOnce() {
+        // Arrange
+        List<MessageDto> batch = List.of(
+                new MessageDto("id1", "Test message 1", "order"),
+                new MessageDto("id2", "Test message 2", "order"),
+                new MessageDto("id3", "Test message 3", "order"));
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class)))
+                .thenAnswer(invocation -> invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0)
+                        .doInRabbit(rabbitTemplate));
+
+        // Act
+        BulkPublishResult result = messagePublisherService.publishBatch(batch);
+
+        // Assert
+        assertEquals(3, result.getPublishedCount());
+        verify(rabbitTemplate, times(1)).invoke(any(RabbitOperations.OperationsCallback.class));
+        verify(rabbitTemplate, times(3)).send(eq(TEST_EXCHANGE), eq(TEST_ROUTING_KEY), any(Message.class));
+        verify(rabbitTemplate, times(1)).waitForConfirmsOrDie(1000L);
+    }
+
+    @Test
+    void publishBatch_ShouldThrowRuntimeException_WhenConfirmsFail() {
+        // Arrange
+        List<MessageDto> batch = List.of(new MessageDto("id1", "Test message", "order"));
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class)))
+                .thenThrow(new RuntimeException("Nacks received"));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> messagePublisherService.publishBatch(batch));
+
+        assertEquals("Failed to publish message batch", exception.getMessage());
+    }
+
+    @Test
+    void publishMessage_ShouldRouteByType_WhenTypeHasItsOwnQueue() {
+        // Arrange
+        typedQueueProperties.setEnabled(true);
+        typedQueueProperties.getTypes().put("order", new TypedQueueProperties.Listener());
+        MessageDto orderMessage = new MessageDto("id1", "Test message", "Order");
+        MessageDto otherMessage = new MessageDto("id2", "Test message", "audit");
+
+        // Act
+        messagePublisherService.publishMessage(orderMessage);
+        messagePublisherService.publishMessage(otherMessage);
+
+        // Assert
+        verify(rabbitTemplate).send(eq(TEST_EXCHANGE), eq("order"), any(Message.class));
+        verify(rabbitTemplate).send(eq(TEST_EXCHANGE), eq(TEST_ROUTING_KEY), any(Message.class));
+    }
+
+    @Test
+    void publishMessage_ShouldUseDefaultRoutingKey_WhenTypedQueuesDisabled() {
+        // Arrange
+        typedQueueProperties.getTypes().put("order", new TypedQueueProperties.Listener());
+        MessageDto orderMessage = new MessageDto("id1", "Test message", "order");
+
+        // Act
+        messagePublisherService.publishMessage(orderMessage);
+
+        // Assert
+        verify(rabbitTemplate).send(eq(TEST_EXCHANGE), eq(TEST_ROUTING_KEY), any(Message.class));
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.example.rabbitmqconsumer.stats;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageStatsTest {
+
+    @Test
+    void testBreakdownByTypeSourceAndPriority() {
+        MessageStats stats = new MessageStats(100);
+
+        stats.recordProcessed(message("ORDER", "web", "high"));
+        stats.recordProcessed(message("order", "mobile", "HIGH"));
+        stats.recordFailed(message("payment", "web", null));
+        stats.recordDeadLetter(message("payment", "web", null));
+
+        StatsSnapshot snapshot = stats.snapshot();
+
+        assertEquals(new StatsCounts(2, 1, 1), snapshot.total());
+        assertEquals(new StatsCounts(2, 0, 0), snapshot.byType().get("order"));
+        assertEquals(new StatsCounts(0, 1, 1), snapshot.byType().get("payment"));
+        assertEquals(new StatsCounts(1, 1, 1), snapshot.bySource().get("web"));
+        assertEquals(new StatsCounts(2, 0, 0), snapshot.byPriority().get("high"));
+        assertEquals(new StatsCounts(0, 1, 1), snapshot.byPriority().get(StatsKey.UNKNOWN));
+    }
+
+    @Test
+    void testSnapshotsAccumulateUntilReset() {
+        MessageStats stats = new MessageStats(100);
+        stats.recordProcessed(message("order", "web", "high"));
+        assertEquals(1, stats.snapshot().total().processed());
+
+        stats.recordProcessed(message("order", "web", "high"));
+        assertEquals(2, stats.snapshot().total().processed());
+
+        StatsSnapshot last = stats.reset();
+        StatsSnapshot afterReset = stats.snapshot();
+
+        assertEquals(2, last.total().processed());
+        assertEquals(0, last.epoch());
+        assertEquals(StatsCounts.ZERO, afterReset.total());
+        assertEquals(1, afterReset.epoch());
+    }
+
+    @Test
+    void testTotalsReadLiveCountsWithoutRetiringAGeneration() {
+        MessageStats stats = new MessageStats(100);
+        stats.recordProcessed(message("order", "web", "high"));
+        stats.snapshot();
+        stats.recordProcessed(message("order", "web", "high"));
+        stats.recordFailed(message("payment", "web", null));
+        Object generation = ReflectionTestUtils.getField(stats, "current");
+        Object live = ((AtomicReference<?>) generation).get();
+
+        assertEquals(new StatsCounts(2, 1, 0), stats.totals());
+        assertSame(live, ((AtomicReference<?>) generation).get());
+        assertEquals(stats.totals(), stats.snapshot().total());
+    }
+
+    @Test
+    void testDistinctKeysAreCapped() {
+        MessageStats stats = new MessageStats(2);
+
+        stats.recordProcessed(message("order", "a", "high"));
+        stats.recordProcessed(message("order", "b", "high"));
+        stats.recordProcessed(message("order", "c", "high"));
+        stats.recordProcessed(message("order", "d", "high"));
+
+        StatsSnapshot snapshot = stats.snapshot();
+        assertEquals(3, snapshot.counts().size());
+        assertEquals(new StatsCounts(2, 0, 0), snapshot.counts().get(StatsKey.OVERFLOW));
+        assertEquals(4, snapshot.total().processed());
+    }
+
+    @Test
+    void testNoUpdateIsLostAcrossConcurrentSnapshotsAndResets() throws Exception {
+        MessageStats stats = new MessageStats(100);
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String type = t % 2 == 0 ? "order" : "payment";
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    stats.recordProcessed(message(type, "web", "normal"));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        long countedInResets = 0;
+        while (writers.stream().anyMatch(f -> !f.isDone())) {
+            StatsSnapshot snapshot = stats.snapshot();
+            // Breakdown and total always come from the same set of updates
+            assertEquals(snapshot.total().processed(),
+                    snapshot.byType().values().stream().mapToLong(StatsCounts::processed).sum());
+            if (snapshot.epoch() % 2 == 0) {
+                countedInResets += stats.reset().total().processed();
+            }
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals((long) threads * perThread, countedInResets + stats.snapshot().total().processed());
+    }
+
+    private static MessageDto message(String type, String source, String priority) {
+        MessageDto messageDto = new MessageDto("id", "content", type);
+        messageDto.setSource(source);
+        messageDto.setPriority(priority);
+        return messageDto;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.rabbitmqconsumer.store;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.dto.ProcessedMessagePage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineProcessedMessageStoreTest {
+
+    @Test
+    void testPutAndGet() {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(100, Duration.ofMinutes(5));
+        MessageDto message = new MessageDto("id1", "content", "order");
+
+        store.put(message);
+
+        assertSame(message, store.get("id1"));
+        assertTrue(store.contains("id1"));
+        assertFalse(store.contains("id2"));
+        assertNull(store.get("id2"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testSizeIsBoundedByMaxEntries() {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(100, Duration.ofMinutes(5));
+
+        for (int i = 0; i < 1000; i++) {
+            store.put(new MessageDto("id" + i, "content", "order"));
+        }
+        store.cleanUp();
+
+        assertTrue(store.size() <= 100);
+        assertTrue(store.evictionCount() >= 900);
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        AtomicLong nanos = new AtomicLong();
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(100, Duration.ofMinutes(5), nanos::get);
+        store.put(new MessageDto("id1", "content", "order"));
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(6));
+
+        assertFalse(store.contains("id1"));
+        assertTrue(store.snapshot().isEmpty());
+    }
+
+    @Test
+    void testSnapshotIsDetachedCopy() {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(100, Duration.ofMinutes(5));
+        store.put(new MessageDto("id1", "content", "order"));
+
+        Map<String, MessageDto> snapshot = store.snapshot();
+        snapshot.clear();
+
+        assertTrue(store.contains("id1"));
+    }
+
+    @Test
+    void testPagesWalkEntriesInInsertionOrder() {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(100, Duration.ofMinutes(5));
+        for (int i = 1; i <= 5; i++) {
+            store.put(new MessageDto("id" + i, "content", "order"));
+        }
+
+        ProcessedMessagePage first = store.page(0, 2);
+        ProcessedMessagePage second = store.page(first.getNextCursor(), 2);
+        ProcessedMessagePage third = store.page(second.getNextCursor(), 2);
+
+        assertEquals(List.of("id1", "id2"), ids(first));
+        assertTrue(first.isHasMore());
+        assertEquals(List.of("id3", "id4"), ids(second));
+        assertEquals(List.of("id5"), ids(third));
+        assertFalse(third.isHasMore());
+    }
+
+    @Test
+    void testOverwrittenEntryMovesToEndOfPages() {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(100, Duration.ofMinutes(5));
+        store.put(new MessageDto("id1", "content", "order"));
+        store.put(new MessageDto("id2", "content", "order"));
+        store.put(new MessageDto("id1", "updated", "order"));
+
+        ProcessedMessagePage page = store.page(0, 10);
+
+        assertEquals(List.of("id2", "id1"), ids(page));
+        assertEquals("updated", page.getMessages().get(1).getContent());
+    }
+
+    @Test
+    void testPagesSkipEvictedEntries() {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(10, Duration.ofMinutes(5));
+        for (int i = 0; i < 100; i++) {
+            store.put(new MessageDto("id" + i, "content", "order"));
+        }
+        store.cleanUp();
+
+        ProcessedMessagePage page = store.page(0, 1000);
+
+        assertEquals(store.size(), page.getMessages().size());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void testForEachAfterResumesFromCursor() {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(100, Duration.ofMinutes(5));
+        for (int i = 1; i <= 4; i++) {
+            store.put(new MessageDto("id" + i, "content", "order"));
+        }
+        long cursor = store.page(0, 2).getNextCursor();
+        List<String> streamed = new ArrayList<>();
+
+        store.forEachAfter(cursor, (position, message) -> streamed.add(message.getId()));
+
+        assertEquals(List.of("id3", "id4"), streamed);
+    }
+
+    @Test
+    void testClear() {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(100, Duration.ofMinutes(5));
+        store.put(new MessageDto("id1", "content", "order"));
+        store.put(new MessageDto("id2", "content", "order"));
+
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertFalse(store.contains("id1"));
+        assertTrue(store.page(0, 10).getMessages().isEmpty());
+    }
+
+    @Test
+    void testConcurrentPutsStayBounded() throws InterruptedException {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(500, Duration.ofMinutes(5));
+        Thread[] threads = new Thread[8];
+
+        for (int i = 0; i < threads.length; i++) {
+            final int threadId = i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    store.put(new MessageDto("thread-" + threadId + "-msg-" + j, "content", "order"));
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        store.cleanUp();
+
+        assertTrue(store.size() <= 500);
+    }
+
+    @Test
+    void testClearDuringPutsKeepsIndexAndCacheInStep() throws InterruptedException {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(100_000, Duration.ofMinutes(5));
+        Thread[] writers = new Thread[4];
+
+        for (int i = 0; i < writers.length; i++) {
+            final int threadId = i;
+            writers[i] = new Thread(() -> {
+                for (int j = 0; j < 5000; j++) {
+                    store.put(new MessageDto("thread-" + threadId + "-msg-" + j, "content", "order"));
+                }
+            });
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+        for (int i = 0; i < 50; i++) {
+            store.clear();
+            Thread.yield();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        store.cleanUp();
+
+        // Every stored message is reachable through the index, and the index holds nothing else
+        List<MessageDto> paged = new ArrayList<>();
+        store.forEachAfter(0, (seq, message) -> paged.add(message));
+        assertEquals(store.snapshot().size(), paged.size());
+        assertEquals(store.size(), paged.size());
+    }
+
+    @Test
+    void testBindsCacheMetrics() {
+        CaffeineProcessedMessageStore store = new CaffeineProcessedMessageStore(100, Duration.ofMinutes(5));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        store.bindTo(registry);
+        store.put(new MessageDto("id1", "content", "order"));
+
+        assertNotNull(registry.find("cache.size").tag("cache", "processedMessages").gauge());
+        assertNotNull(registry.find("cache.evictions").tag("cache", "processedMessages").functionCounter());
+    }
+
+    private List<String> ids(ProcessedMessagePage page) {
+        return page.getMessages().stream().map(MessageDto::getId).toList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.rabbitmqconsumer.validation;
+
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessagePreValidatorTest {
+
+    private SimpleMeterRegistry registry;
+    private MessagePreValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        validator = new MessagePreValidator(registry);
+        ReflectionTestUtils.setField(validator, "enabled", true);
+        ReflectionTestUtils.setField(validator, "requireMessageId", true);
+        ReflectionTestUtils.setField(validator, "requireType", true);
+        ReflectionTestUtils.setField(validator, "maxBodyBytes", 64);
+        ReflectionTestUtils.setField(validator, "contentTypes", List.of("application/json"));
+    }
+
+    @Test
+    void testStampedMessagePassesValidation() {
+        MessagePropertiesStampingConverter converter = new MessagePropertiesStampingConverter(new Jackson2JsonMessageConverter());
+
+        Message message = converter.toMessage(new MessageDto("id-1", "content", "order"), new MessageProperties());
+
+        assertEquals("id-1", message.getMessageProperties().getMessageId());
+        assertEquals("order", message.getMessageProperties().getType());
+        ReflectionTestUtils.setField(validator, "maxBodyBytes", 1024);
+        assertNull(validator.validate(message));
+    }
+
+    @Test
+    void testUnstampedMessagePassesWhenPropertiesAreNotRequired() {
+        ReflectionTestUtils.setField(validator, "requireMessageId", false);
+        ReflectionTestUtils.setField(validator, "requireType", false);
+        ReflectionTestUtils.setField(validator, "maxBodyBytes", 1024);
+
+        // What a plain RabbitTemplate.convertAndSend() with the JSON converter publishes
+        Message message = new Jackson2JsonMessageConverter().toMessage(new MessageDto("id-1", "content", "order"), new MessageProperties());
+
+        assertNull(message.getMessageProperties().getMessageId());
+        assertNull(message.getMessageProperties().getType());
+        assertNull(validator.validate(message));
+    }
+
+    @Test
+    void testMissingPropertiesAreRejected() {
+        assertEquals(MessagePreValidator.MISSING_ID, validator.validate(message(null, "order", "{}")));
+        assertEquals(MessagePreValidator.MISSING_TYPE, validator.validate(message("id-1", " ", "{}")));
+    }
+
+    @Test
+    void testBodySizeAndContentTypeAreChecked() {
+        assertEquals(MessagePreValidator.EMPTY_BODY, validator.validate(message("id-1", "order", "")));
+        assertEquals(MessagePreValidator.BODY_TOO_LARGE, validator.validate(message("id-1", "order", "x".repeat(65))));
+
+        Message xml = message("id-1", "order", "<m/>");
+        xml.getMessageProperties().setContentType("application/xml");
+        assertEquals(MessagePreValidator.UNSUPPORTED_CONTENT_TYPE, validator.validate(xml));
+    }
+
+    @Test
+    void testRejectsAreCountedByReason() {
+        validator.validate(message(null, "order", "{}"));
+        validator.validate(message(null, "order", "{}"));
+        validator.validate(message("id-1", null, "{}"));
+
+        assertEquals(2.0, registry.get("messages.prevalidation.rejects").tag("reason", MessagePreValidator.MISSING_ID).counter().count());
+        assertEquals(1.0, registry.get("messages.prevalidation.rejects").tag("reason", MessagePreValidator.MISSING_TYPE).counter().count());
+    }
+
+    @Test
+    void testDisabledValidationAcceptsEverything() {
+        ReflectionTestUtils.setField(validator, "enabled", false);
+
+        assertNull(validator.validate(message(null, null, "")));
+    }
+
+    private static Message message(String messageId, String type, String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(messageId);
+        properties.setType(type);
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
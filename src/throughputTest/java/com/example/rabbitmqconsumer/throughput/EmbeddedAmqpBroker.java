@@ -0,0 +1,84 @@
+package com.example.rabbitmqconsumer.throughput;
+
+import org.apache.qpid.server.SystemLauncher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Qpid Broker-J running inside the test JVM with an in-memory store, speaking AMQP 0-9-1 on a
+ * free local port (virtual host "default", user guest/guest). Stands in for RabbitMQ where
+ * Docker isn't available. Publisher confirms work, but RabbitMQ-only queue arguments such as
+ * per-queue TTL don't, so the scenarios run with the TTL retry tiers switched off.
+ */
+public final class EmbeddedAmqpBroker implements AutoCloseable {
+
+    public static final String VIRTUAL_HOST = "default";
+
+    private static final String INITIAL_CONFIGURATION = "embedded-broker-config.json";
+
+    private final SystemLauncher launcher = new SystemLauncher();
+    private final int port;
+
+    private EmbeddedAmqpBroker(int port) {
+        this.port = port;
+    }
+
+    public static EmbeddedAmqpBroker start() {
+        EmbeddedAmqpBroker broker = new EmbeddedAmqpBroker(freePort());
+        broker.startup();
+        return broker;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        launcher.shutdown();
+    }
+
+    private void startup() {
+        URL initialConfiguration = EmbeddedAmqpBroker.class.getClassLoader().getResource(INITIAL_CONFIGURATION);
+        if (initialConfiguration == null) {
+            throw new IllegalStateException(INITIAL_CONFIGURATION + " not found on the classpath");
+        }
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("type", "Memory");
+        attributes.put("initialConfigurationLocation", initialConfiguration.toExternalForm());
+        attributes.put("startupLoggedToSystemOut", false);
+        attributes.put("context", Map.of(
+                "qpid.amqp_port", String.valueOf(port),
+                "qpid.work_dir", workDirectory().toString()));
+        try {
+            launcher.startup(attributes);
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not start the embedded AMQP broker", e);
+        }
+    }
+
+    private static Path workDirectory() {
+        try {
+            Path workDirectory = Files.createTempDirectory("embedded-amqp-broker");
+            workDirectory.toFile().deleteOnExit();
+            return workDirectory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
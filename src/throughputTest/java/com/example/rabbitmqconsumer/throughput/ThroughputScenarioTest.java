@@ -0,0 +1,201 @@
+package com.example.rabbitmqconsumer.throughput;
+
+import com.example.rabbitmqconsumer.RabbitMqConsumerApplication;
+import com.example.rabbitmqconsumer.dto.MessageDto;
+import com.example.rabbitmqconsumer.metrics.MessagingMetrics;
+import com.example.rabbitmqconsumer.service.MessageProcessingService;
+import com.example.rabbitmqconsumer.service.MessagePublisherService;
+import com.example.rabbitmqconsumer.service.PublishRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Publish/consume throughput and latency of the real application - RabbitMqConfig, the
+ * publisher and MessageConsumer - against an in-process broker. Handler delays are off, so
+ * the numbers are the messaging overhead. Run with ./gradlew throughputTest
+ * [-PthroughputMessages=N]; every scenario prints one [throughput] line.
+ */
+@SpringBootTest(classes = RabbitMqConsumerApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.rabbitmq.host=127.0.0.1",
+                "spring.rabbitmq.virtual-host=" + EmbeddedAmqpBroker.VIRTUAL_HOST,
+                "spring.rabbitmq.listener.simple.concurrency=4",
+                "spring.rabbitmq.listener.simple.max-concurrency=8",
+                "spring.rabbitmq.listener.simple.prefetch=250",
+                "app.rabbitmq.retry.enabled=false",
+                "app.rabbitmq.typed-queues.enabled=false",
+                "app.handlers.simulate-delay=false",
+                "app.logging.hot-path.success-sample-rate=10000",
+                "app.processed-store.max-entries=100000",
+                "logging.level.org.apache.qpid=WARN"
+        })
+@Import(ThroughputScenarioTest.LenientDeclarationConfig.class)
+class ThroughputScenarioTest {
+
+    private static final EmbeddedAmqpBroker BROKER = EmbeddedAmqpBroker.start();
+
+    private static final int MESSAGES = Integer.getInteger("throughput.messages", 5000);
+    private static final int BATCH_SIZE = 500;
+    private static final long DRAIN_TIMEOUT_MILLIS = 120_000;
+
+    @Autowired
+    private MessagePublisherService messagePublisherService;
+
+    @Autowired
+    private MessageProcessingService messageProcessingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void brokerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.rabbitmq.port", BROKER::getPort);
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        BROKER.close();
+    }
+
+    @ParameterizedTest(name = "{0} publish, {1} byte payload")
+    @CsvSource({
+            "sync, 256",
+            "async, 256",
+            "batch, 256",
+            "batch, 16384"
+    })
+    void publishAndConsume(String mode, int payloadBytes) throws Exception {
+        List<MessageDto> messages = messages(payloadBytes);
+        long processedBefore = messageProcessingService.getProcessedCount();
+
+        long start = System.nanoTime();
+        publish(mode, messages);
+        long publishedNanos = System.nanoTime() - start;
+        awaitProcessed(processedBefore + messages.size());
+        long drainedNanos = System.nanoTime() - start;
+
+        System.out.printf("[throughput] mode=%s payload=%dB messages=%d publish=%.0f msg/s end-to-end=%.0f msg/s"
+                        + " publish p99=%s consume p50=%s p99=%s%n",
+                mode, payloadBytes, messages.size(),
+                rate(messages.size(), publishedNanos), rate(messages.size(), drainedNanos),
+                percentile(MessagingMetrics.PUBLISH_TIMER, 0.99),
+                percentile(MessagingMetrics.CONSUME_TIMER, 0.5), percentile(MessagingMetrics.CONSUME_TIMER, 0.99));
+        assertEquals(processedBefore + messages.size(), messageProcessingService.getProcessedCount());
+    }
+
+    private void publish(String mode, List<MessageDto> messages) throws Exception {
+        switch (mode) {
+            case "sync" -> messages.forEach(messagePublisherService::publishMessage);
+            case "async" -> {
+                List<CompletableFuture<CorrelationData>> confirms = new ArrayList<>(messages.size());
+                for (MessageDto messageDto : messages) {
+                    confirms.add(publishAsync(messageDto));
+                }
+                CompletableFuture.allOf(confirms.toArray(CompletableFuture[]::new)).get(DRAIN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            case "batch" -> {
+                for (int offset = 0; offset < messages.size(); offset += BATCH_SIZE) {
+                    messagePublisherService.publishBatch(messages.subList(offset, Math.min(messages.size(), offset + BATCH_SIZE)));
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown publish mode: " + mode);
+        }
+    }
+
+    /**
+     * The publisher rejects instead of blocking when its confirm window is full; wait for a slot here
+     */
+    private CompletableFuture<CorrelationData> publishAsync(MessageDto messageDto) {
+        while (true) {
+            try {
+                return messagePublisherService.publishMessageAsync(messageDto);
+            } catch (PublishRejectedException e) {
+                if (e.getReason() != PublishRejectedException.Reason.CONFIRM_WINDOW_FULL) {
+                    throw e;
+                }
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+    }
+
+    private void awaitProcessed(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        while (messageProcessingService.getProcessedCount() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Only " + messageProcessingService.getProcessedCount() + " of " + expected
+                        + " messages processed within " + DRAIN_TIMEOUT_MILLIS + " ms");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<MessageDto> messages(int payloadBytes) {
+        String run = UUID.randomUUID().toString();
+        String content = "x".repeat(payloadBytes);
+        List<MessageDto> messages = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            MessageDto messageDto = new MessageDto(run + "-" + i, content, "notification");
+            messageDto.setSource("throughput-test");
+            messages.add(messageDto);
+        }
+        return messages;
+    }
+
+    private static double rate(int messages, long nanos) {
+        return messages / (nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Client-side percentile across all timers of that name, in ms; recent scenarios dominate
+     */
+    private String percentile(String timerName, double percentile) {
+        double worst = -1;
+        for (Timer timer : meterRegistry.find(timerName).timers()) {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                if (value.percentile() == percentile) {
+                    worst = Math.max(worst, value.value(TimeUnit.MILLISECONDS));
+                }
+            }
+        }
+        return worst < 0 ? "n/a" : String.format("%.2fms", worst);
+    }
+
+    /**
+     * Broker-J doesn't know every RabbitMQ queue argument; don't fail startup over it
+     */
+    @TestConfiguration
+    static class LenientDeclarationConfig {
+
+        @Bean
+        RabbitAdmin amqpAdmin(ConnectionFactory connectionFactory) {
+            RabbitAdmin rabbitAdmin = new RabbitAdmin(connectionFactory);
+            rabbitAdmin.setIgnoreDeclarationExceptions(true);
+            return rabbitAdmin;
+        }
+    }
+}